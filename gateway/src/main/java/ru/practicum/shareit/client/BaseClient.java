@@ -1,18 +1,73 @@
 package ru.practicum.shareit.client;
 
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class BaseClient {
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(),
+            "keep-alive",
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.TE.toLowerCase(),
+            HttpHeaders.TRAILER.toLowerCase(),
+            HttpHeaders.UPGRADE.toLowerCase(),
+            HttpHeaders.PROXY_AUTHENTICATE.toLowerCase(),
+            HttpHeaders.PROXY_AUTHORIZATION.toLowerCase(),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+            HttpHeaders.DATE.toLowerCase()
+    );
+
+    private static final List<String> FORWARDED_REQUEST_HEADERS = List.of(HttpHeaders.IF_MATCH, HttpHeaders.IF_NONE_MATCH);
+    private static final String ANY_TAG = "*";
+    private static final String WEAK_TAG_PREFIX = "W/";
+    private static final int VALIDATOR_CACHE_MAX_BYTES = 8 * 1024 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
     protected final RestTemplate rest;
+    @Nullable
+    private final ClientHttpRequestFactory exportRequestFactory;
+    private final ValidatorCache validatorCache = new ValidatorCache(VALIDATOR_CACHE_MAX_BYTES);
 
     public BaseClient(RestTemplate rest) {
+        this(rest, null);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable ClientHttpRequestFactory exportRequestFactory) {
         this.rest = rest;
+        this.exportRequestFactory = exportRequestFactory;
+        this.rest.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -27,6 +82,66 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<Object> conditionalGet(String path, long userId) {
+        String key = userId + " " + path;
+        HttpHeaders headers = defaultHeaders(userId);
+        List<String> requestedTags = parseTags(headers.get(HttpHeaders.IF_NONE_MATCH));
+        ValidatorCache.Entry cached = validatorCache.get(key);
+        if (cached != null && !containsTag(requestedTags, cached.getETag())) {
+            List<String> tags = new ArrayList<>(requestedTags);
+            tags.add(cached.getETag());
+            headers.set(HttpHeaders.IF_NONE_MATCH, String.join(", ", tags));
+        }
+
+        RequestCallback requestCallback = rest.httpEntityCallback(new HttpEntity<>(headers));
+        // the validator cache weighs entries by bytes and refuses one larger than all of it,
+        // so only a body that could fit is read up front, anything larger is streamed like a plain GET
+        ResponseEntity<Object> response = exchange(HttpMethod.GET, path, null, requestCallback, VALIDATOR_CACHE_MAX_BYTES);
+        String eTag = response.getHeaders().getETag();
+        if (response.getStatusCodeValue() == HttpStatus.NOT_MODIFIED.value()) {
+            if (containsTag(requestedTags, eTag)) {
+                return response;
+            }
+            if (cached != null && cached.getETag().equals(eTag)) {
+                return ResponseEntity.ok().headers(cached.getHeaders()).body(cached.getBody());
+            }
+            validatorCache.remove(key);
+            return response;
+        }
+
+        if (response.getStatusCodeValue() == HttpStatus.OK.value() && eTag != null && response.getBody() instanceof byte[]) {
+            validatorCache.put(key, new ValidatorCache.Entry(eTag, response.getHeaders(), (byte[]) response.getBody()));
+        } else {
+            validatorCache.remove(key);
+        }
+        return response;
+    }
+
+    protected ResponseEntity<StreamingResponseBody> stream(String path, long userId) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        // inbound headers are only reachable from the servlet thread, the body is written on an async one
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+        ClientHttpRequestFactory requestFactory = exportRequestFactory != null ? exportRequestFactory : rest.getRequestFactory();
+        // the server connection is taken only once the body is written and always released by it,
+        // an export the client never reads holds nothing
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> {
+                    ClientHttpRequest request = requestFactory.createRequest(uri, HttpMethod.GET);
+                    request.getHeaders().addAll(headers);
+                    try (ClientHttpResponse response = request.execute(); InputStream body = response.getBody()) {
+                        if (!HttpStatus.Series.SUCCESSFUL.equals(HttpStatus.Series.resolve(response.getRawStatusCode()))) {
+                            // nothing is written yet, so the error handler can still relay the server's answer
+                            throw new RestClientResponseException("Export from \"" + uri + "\" failed",
+                                    response.getRawStatusCode(), response.getStatusText(), passThroughHeaders(response),
+                                    body.readAllBytes(), null);
+                        }
+                        copyUnbuffered(body, outputStream);
+                    }
+                });
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -77,18 +192,27 @@ public class BaseClient {
 
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        RequestCallback requestCallback = rest.httpEntityCallback(requestEntity);
+        return exchange(method, path, parameters, requestCallback, STREAM_BUFFER_SIZE);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
+    private ResponseEntity<Object> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                           RequestCallback requestCallback, int bufferLimit) {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        ClientHttpResponse response = null;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+            requestCallback.doWithRequest(request);
+            response = request.execute();
+            return passThrough(response, bufferLimit);
+        } catch (IOException e) {
+            if (response != null) {
+                response.close();
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            throw new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": " + e.getMessage(), e);
         }
-        return prepareGatewayResponse(shareitServerResponse);
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -98,20 +222,101 @@ public class BaseClient {
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        forwardRequestHeaders(headers);
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static void forwardRequestHeaders(HttpHeaders headers) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        for (String name : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                headers.set(name, value);
+            }
         }
+    }
+
+    private static List<String> parseTags(@Nullable List<String> headerValues) {
+        List<String> tags = new ArrayList<>();
+        if (headerValues != null) {
+            for (String value : headerValues) {
+                for (String tag : value.split(",")) {
+                    if (!tag.isBlank()) {
+                        tags.add(tag.trim());
+                    }
+                }
+            }
+        }
+        return tags;
+    }
+
+    private static boolean containsTag(List<String> tags, @Nullable String eTag) {
+        if (eTag == null) {
+            return false;
+        }
+        String opaqueTag = stripWeakPrefix(eTag);
+        return tags.stream().anyMatch(tag -> ANY_TAG.equals(tag) || stripWeakPrefix(tag).equals(opaqueTag));
+    }
+
+    private static String stripWeakPrefix(String tag) {
+        return tag.startsWith(WEAK_TAG_PREFIX) ? tag.substring(WEAK_TAG_PREFIX.length()) : tag;
+    }
+
+    private static ResponseEntity<Object> passThrough(ClientHttpResponse response, int bufferLimit) throws IOException {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getRawStatusCode())
+                .headers(passThroughHeaders(response));
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        InputStream body = response.getBody();
+        byte[] head = body.readNBytes(bufferLimit + 1);
+        if (head.length <= bufferLimit) {
+            response.close();
+            if (head.length == 0) {
+                return responseBuilder.build();
+            }
+            return responseBuilder.body(head);
+        }
+        // the rest of a large body goes straight from the server connection to the client, released once written
+        closeWithRequest(response);
+        InputStream remaining = new FilterInputStream(new SequenceInputStream(new ByteArrayInputStream(head), body)) {
+            @Override
+            public void close() throws IOException {
+                try (response) {
+                    super.close();
+                }
+            }
+        };
+        return responseBuilder.body(new InputStreamResource(remaining));
+    }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    private static void closeWithRequest(ClientHttpResponse response) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            // the body may never be written if the request fails first, the connection must still go back to the pool
+            attributes.registerDestructionCallback(BaseClient.class.getName() + "@" + System.identityHashCode(response),
+                    response::close, RequestAttributes.SCOPE_REQUEST);
         }
+    }
 
-        return responseBuilder.build();
+    private static void copyUnbuffered(InputStream inputStream, OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+            outputStream.flush();
+        }
+    }
+
+    private static HttpHeaders passThroughHeaders(ClientHttpResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.put(name, values);
+            }
+        });
+        return headers;
     }
 }
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class ValidatorCache {
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private long bytes;
+
+    ValidatorCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(String key, Entry entry) {
+        remove(key);
+        long weight = weigh(key, entry);
+        if (weight > maxBytes)
+            return;
+        entries.put(key, entry);
+        bytes += weight;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            bytes -= weigh(evicted.getKey(), evicted.getValue());
+            eldest.remove();
+        }
+    }
+
+    synchronized void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null)
+            bytes -= weigh(key, removed);
+    }
+
+    private static long weigh(String key, Entry entry) {
+        return key.length() + entry.getETag().length() + entry.getBody().length;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Entry {
+        private final String eTag;
+        private final HttpHeaders headers;
+        private final byte[] body;
+    }
+}
@@ -1,16 +1,19 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -19,12 +22,14 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory,
+            @Qualifier("shareItServerExportRequestFactory") ClientHttpRequestFactory exportRequestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                exportRequestFactory
         );
     }
 
@@ -32,10 +37,28 @@ public class ItemClient extends BaseClient {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> addItems(long userId, List<ItemRequestDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
     public ResponseEntity<Object> addComment(long userId, long itemId, CommentRequestDto requestDto) {
         return post("/" + itemId + "/comment", userId, requestDto);
     }
 
+    public ResponseEntity<Object> getComments(long userId, long itemId, Integer size, String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "cursor", cursor
+            );
+            return get("/" + itemId + "/comments?size={size}&cursor={cursor}", userId, parameters);
+        }
+        Map<String, Object> parameters = Map.of(
+                "size", size
+        );
+        return get("/" + itemId + "/comments?size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getAllByOwner(long userId, Integer from, Integer size) {
         Map<String, java.lang.Object> parameters = Map.of(
                 "from", from,
@@ -53,8 +76,12 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<StreamingResponseBody> exportAllByOwner(long userId) {
+        return stream("/export", userId);
+    }
+
     public ResponseEntity<Object> getItem(long userId, long itemId) {
-        return get("/" + itemId, userId);
+        return conditionalGet("/" + itemId, userId);
     }
 
     public ResponseEntity<Object> updateItem(long userId, long itemId, ItemRequestDto requestDto) {
@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.exception.PaginationBoundariesException;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
@@ -14,8 +15,12 @@ import ru.practicum.shareit.item.validator.AddItemValidator;
 import ru.practicum.shareit.item.validator.UpdateItemValidator;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 
 @Controller
@@ -27,11 +32,17 @@ public class ItemController {
     private static final String LOGGER_GET_ITEMS_BY_OWNER_MESSAGE = "Returning items by owner";
     private static final String LOGGER_GET_ITEMS_BY_TEXT_MESSAGE = "Returning items by text: {}";
     private static final String LOGGER_ADD_ITEM_MESSAGE = "Adding item";
+    private static final String LOGGER_ADD_ITEMS_MESSAGE = "Adding {} items";
     private static final String LOGGER_ADD_COMMENT_MESSAGE = "Adding comment";
+    private static final String LOGGER_EXPORT_ITEMS_BY_OWNER_MESSAGE = "Exporting items by owner: {}";
+    private static final String LOGGER_GET_COMMENTS_MESSAGE = "Returning comments of item with id: {}";
     private static final String LOGGER_GET_ITEM_BY_ID_MESSAGE = "Getting item with id: {}";
     private static final String LOGGER_UPDATE_ITEM_MESSAGE = "Updating item with id: {}";
 
     private static final String USER_ID_REQUEST_HEADER = "X-Sharer-User-Id";
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_COMMENTS_PAGE_SIZE = 100;
+
     private final ItemClient itemClient;
 
     @PostMapping
@@ -40,12 +51,29 @@ public class ItemController {
         return itemClient.addItem(userId, itemRequestDto);
     }
 
+    @PostMapping("/batch")
+    @Validated(AddItemValidator.class)
+    public ResponseEntity<Object> addItems(@RequestHeader(USER_ID_REQUEST_HEADER) int userId,
+                                           @NotEmpty(groups = AddItemValidator.class) @Size(max = MAX_BATCH_SIZE, groups = AddItemValidator.class)
+                                           @RequestBody List<@Valid ItemRequestDto> items) {
+        log.info(LOGGER_ADD_ITEMS_MESSAGE, items.size());
+        return itemClient.addItems(userId, items);
+    }
+
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<Object> addComment(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable int itemId, @Valid @RequestBody CommentRequestDto commentRequestDto) {
         log.info(LOGGER_ADD_COMMENT_MESSAGE);
         return itemClient.addComment(userId, itemId, commentRequestDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable int itemId,
+                                              @Positive @Max(MAX_COMMENTS_PAGE_SIZE) @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                              @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info(LOGGER_GET_COMMENTS_MESSAGE, itemId);
+        return itemClient.getComments(userId, itemId, size, cursor);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAllByOwner(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                                 @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
@@ -53,6 +81,12 @@ public class ItemController {
         return itemClient.getAllByOwner(userId, from, size);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAllByOwner(@RequestHeader(USER_ID_REQUEST_HEADER) int userId) {
+        log.info(LOGGER_EXPORT_ITEMS_BY_OWNER_MESSAGE, userId);
+        return itemClient.exportAllByOwner(userId);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Object> getAllByText(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @RequestParam String text, @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
@@ -9,6 +9,9 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/users")
@@ -18,10 +21,13 @@ import javax.validation.Valid;
 public class UserController {
     private static final String LOGGER_GET_USERS_MESSAGE = "Returning list of users";
     private static final String LOGGER_ADD_USER_MESSAGE = "Adding user ";
+    private static final String LOGGER_ADD_USERS_MESSAGE = "Adding {} users";
     private static final String LOGGER_GET_USER_BY_ID_MESSAGE = "Getting user with id: {}";
     private static final String LOGGER_UPDATE_USER_MESSAGE = "Updating user with id: {}";
     private static final String LOGGER_REMOVE_USER_MESSAGE = "Removing user with id: {}";
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final UserClient userClient;
 
     @PostMapping
@@ -30,6 +36,12 @@ public class UserController {
         return userClient.addUser(user);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> addUsers(@NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestBody List<@Valid UserRequestDto> users) {
+        log.info(LOGGER_ADD_USERS_MESSAGE, users.size());
+        return userClient.addUsers(users);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAllUsers() {
         log.info(LOGGER_GET_USERS_MESSAGE);
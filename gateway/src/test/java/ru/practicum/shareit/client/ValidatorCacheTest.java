@@ -0,0 +1,39 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ValidatorCacheTest {
+
+    @Test
+    void put_whenBytesExceedLimit_thenLeastRecentlyUsedEvicted() {
+        ValidatorCache cache = new ValidatorCache(250);
+        cache.put("1:/items/1", entry(100));
+        cache.put("1:/items/2", entry(100));
+        cache.get("1:/items/1");
+
+        cache.put("1:/items/3", entry(30));
+
+        assertNotNull(cache.get("1:/items/1"));
+        assertNull(cache.get("1:/items/2"));
+        assertNotNull(cache.get("1:/items/3"));
+    }
+
+    @Test
+    void put_whenEntryAloneExceedsLimit_thenNotCached() {
+        ValidatorCache cache = new ValidatorCache(250);
+        cache.put("1:/items/1", entry(100));
+
+        cache.put("1:/items/2", entry(300));
+
+        assertNotNull(cache.get("1:/items/1"));
+        assertNull(cache.get("1:/items/2"));
+    }
+
+    private ValidatorCache.Entry entry(int bodyBytes) {
+        return new ValidatorCache.Entry("\"1-0\"", new HttpHeaders(), new byte[bodyBytes]);
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientBenchmarkTest {
+
+    private static final int BOOKINGS_PER_PAGE = 500;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 1000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RestTemplate rest;
+    private BaseClient client;
+    private MockRestServiceServer server;
+    private String page;
+
+    @BeforeEach
+    void setUp() {
+        rest = new RestTemplate();
+        client = new BaseClient(rest);
+        server = MockRestServiceServer.bindTo(rest).build();
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < BOOKINGS_PER_PAGE; i++) {
+            if (i > 0)
+                json.append(',');
+            json.append("{\"id\":").append(i)
+                    .append(",\"start\":\"2023-03-01T10:00:00\",\"end\":\"2023-03-02T10:00:00\",\"status\":\"APPROVED\"")
+                    .append(",\"booker\":{\"id\":").append(i % 20).append(",\"name\":\"user").append(i % 20).append("\"}")
+                    .append(",\"item\":{\"id\":").append(i % 100).append(",\"name\":\"item").append(i % 100).append("\"}}");
+        }
+        page = json.append(']').toString();
+    }
+
+    @Test
+    void get_whenPageIsLarge_thenPassThroughIsCheaperThanObjectRoundTrip() {
+        server.expect(ExpectedCount.manyTimes(), requestTo("/bookings"))
+                .andRespond(withSuccess(page, MediaType.APPLICATION_JSON));
+
+        Supplier<byte[]> objectRoundTrip = () -> {
+            Object body = rest.exchange("/bookings", HttpMethod.GET, HttpEntity.EMPTY, Object.class).getBody();
+            try {
+                return objectMapper.writeValueAsBytes(body);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        Supplier<byte[]> passThrough = () -> drain(client.get("/bookings", 1));
+
+        Measurement objectRoundTripMeasurement = measure(objectRoundTrip);
+        Measurement passThroughMeasurement = measure(passThrough);
+
+        String comparison = String.format("pass-through %d bytes/op, %d ns/op vs object round trip %d bytes/op, %d ns/op",
+                passThroughMeasurement.bytesPerOp, passThroughMeasurement.nanosPerOp,
+                objectRoundTripMeasurement.bytesPerOp, objectRoundTripMeasurement.nanosPerOp);
+        assertArrayEquals(page.getBytes(), passThrough.get());
+        assertTrue(passThroughMeasurement.bytesPerOp < objectRoundTripMeasurement.bytesPerOp, comparison);
+        assertTrue(passThroughMeasurement.nanosPerOp < objectRoundTripMeasurement.nanosPerOp, comparison);
+    }
+
+    private static byte[] drain(ResponseEntity<Object> response) {
+        Object body = response.getBody();
+        if (body instanceof byte[]) {
+            return (byte[]) body;
+        }
+        // a page larger than the read-ahead buffer comes back as a stream, written out the way the servlet would
+        try (InputStream inputStream = ((Resource) body).getInputStream()) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Measurement measure(Supplier<byte[]> call) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            call.get();
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            call.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Measurement(allocated / MEASURED_ITERATIONS, elapsed / MEASURED_ITERATIONS);
+    }
+
+    @RequiredArgsConstructor
+    private static class Measurement {
+        private final long bytesPerOp;
+        private final long nanosPerOp;
+    }
+}
@@ -0,0 +1,195 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+
+    private BaseClient client;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate rest = new RestTemplate();
+        client = new BaseClient(rest);
+        server = MockRestServiceServer.bindTo(rest).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void get_whenServerReturnsError_thenStatusAndBodyPassedThrough() {
+        String error = "{\"error\":\"Booking with id 1 not found\"}";
+        server.expect(requestTo("/bookings/1")).andRespond(withStatus(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity<Object> response = client.get("/bookings/1", 1);
+
+        assertEquals(404, response.getStatusCodeValue());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(error.getBytes(), (byte[]) response.getBody());
+    }
+
+    @Test
+    void get_whenBodyExceedsReadAhead_thenStreamed() throws Exception {
+        String page = "[" + "{\"id\":1},".repeat(2000) + "{\"id\":2}]";
+        server.expect(requestTo("/bookings")).andRespond(withSuccess(page, MediaType.APPLICATION_JSON));
+        ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+
+        ResponseEntity<Object> response = client.get("/bookings", 1);
+
+        assertTrue(response.getBody() instanceof Resource);
+        try (InputStream body = ((Resource) response.getBody()).getInputStream()) {
+            assertEquals(page, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        attributes.requestCompleted();
+    }
+
+    @Test
+    void stream_whenServerExportsLines_thenBodyCopiedWithStatusAndContentType() throws Exception {
+        String lines = "{\"id\":1}\n{\"id\":2}\n";
+        server.expect(requestTo("/bookings/export"))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(lines, MediaType.APPLICATION_NDJSON));
+
+        ResponseEntity<StreamingResponseBody> response = client.stream("/bookings/export", 1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        server.verify();
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals(lines, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void stream_whenBodyNeverWritten_thenServerNotCalled() {
+        ResponseEntity<StreamingResponseBody> response = client.stream("/bookings/export", 1);
+
+        server.verify();
+        assertEquals(200, response.getStatusCodeValue());
+    }
+
+    @Test
+    void stream_whenServerRejectsExport_thenStatusAndBodyRelayedBeforeWriting() {
+        String error = "{\"error\":\"User not found\"}";
+        server.expect(requestTo("/bookings/export"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity<StreamingResponseBody> response = client.stream("/bookings/export", 1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        RestClientResponseException exception =
+                assertThrows(RestClientResponseException.class, () -> response.getBody().writeTo(output));
+
+        server.verify();
+        assertEquals(404, exception.getRawStatusCode());
+        assertEquals(error, exception.getResponseBodyAsString());
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    void patch_whenInboundRequestHasIfMatch_thenHeaderForwardedAndETagPassedBack() {
+        MockHttpServletRequest inbound = new MockHttpServletRequest();
+        inbound.addHeader(HttpHeaders.IF_MATCH, "\"3\"");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(inbound));
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setETag("\"4\"");
+        server.expect(requestTo("/users/1"))
+                .andExpect(header(HttpHeaders.IF_MATCH, "\"3\""))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(responseHeaders));
+
+        ResponseEntity<Object> response = client.patch("/users/1", Map.of("name", "John"));
+
+        server.verify();
+        assertEquals("\"4\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void conditionalGet_whenServerConfirmsCachedTag_thenAnswerFromValidatorCache() {
+        String item = "{\"id\":1,\"name\":\"Пылесос\"}";
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setETag("\"2-0\"");
+        server.expect(requestTo("/items/1"))
+                .andRespond(withSuccess(item, MediaType.APPLICATION_JSON).headers(responseHeaders));
+        server.expect(requestTo("/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"2-0\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(responseHeaders));
+
+        ResponseEntity<Object> first = client.conditionalGet("/items/1", 1);
+        ResponseEntity<Object> second = client.conditionalGet("/items/1", 1);
+
+        server.verify();
+        assertEquals(200, first.getStatusCodeValue());
+        assertEquals(200, second.getStatusCodeValue());
+        assertEquals("\"2-0\"", second.getHeaders().getETag());
+        assertArrayEquals((byte[]) first.getBody(), (byte[]) second.getBody());
+    }
+
+    @Test
+    void conditionalGet_whenBodyIsLarge_thenStillCachedWithinByteBudget() {
+        String item = "{\"id\":1,\"description\":\"" + "Пылесос".repeat(20_000) + "\"}";
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setETag("\"2-0\"");
+        server.expect(requestTo("/items/1"))
+                .andRespond(withSuccess(item, MediaType.APPLICATION_JSON).headers(responseHeaders));
+        server.expect(requestTo("/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"2-0\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(responseHeaders));
+
+        client.conditionalGet("/items/1", 1);
+        ResponseEntity<Object> second = client.conditionalGet("/items/1", 1);
+
+        server.verify();
+        assertEquals(200, second.getStatusCodeValue());
+        assertArrayEquals(item.getBytes(StandardCharsets.UTF_8), (byte[]) second.getBody());
+    }
+
+    @Test
+    void conditionalGet_whenClientTagIsCurrent_thenNotModifiedRelayed() {
+        MockHttpServletRequest inbound = new MockHttpServletRequest();
+        inbound.addHeader(HttpHeaders.IF_NONE_MATCH, "\"2-0\"");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(inbound));
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setETag("\"2-0\"");
+        server.expect(requestTo("/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"2-0\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(responseHeaders));
+
+        ResponseEntity<Object> response = client.conditionalGet("/items/1", 1);
+
+        server.verify();
+        assertEquals(304, response.getStatusCodeValue());
+        assertEquals("\"2-0\"", response.getHeaders().getETag());
+    }
+}
@@ -0,0 +1,31 @@
+package db.migration.postgresql;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+// bookings approved before the overlap checks existed would make the exclusion constraint in V5 fail,
+// which of them keeps the slot is a decision for an operator, so the migration stops and names them
+public class V4_16__check_overlapping_approved_bookings extends BaseJavaMigration {
+    private static final String FIND_OVERLAPS = "select 'item ' || later.item_id || ': bookings ' || " +
+            "earlier.booking_id || ' and ' || later.booking_id " +
+            "from bookings as earlier join bookings as later on later.item_id = earlier.item_id " +
+            "and later.booking_id > earlier.booking_id " +
+            "and earlier.start_date < later.end_date and earlier.end_date > later.start_date " +
+            "where earlier.status = 'APPROVED' and later.status = 'APPROVED' " +
+            "ORDER BY later.item_id, earlier.booking_id, later.booking_id ";
+    private static final String OVERLAPS_FOUND_MESSAGE = "Approved bookings overlap and must be resolved " +
+            "before the exclusion constraint can be added: %s";
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        List<String> overlaps = jdbcTemplate.queryForList(FIND_OVERLAPS, String.class);
+        if (!overlaps.isEmpty())
+            throw new FlywayException(String.format(OVERLAPS_FOUND_MESSAGE, String.join("; ", overlaps)));
+    }
+}
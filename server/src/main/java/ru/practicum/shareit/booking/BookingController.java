@@ -2,12 +2,21 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.VersionTag;
 
 import java.util.List;
+import java.util.Optional;
 
 
 @RestController
@@ -19,10 +28,14 @@ public class BookingController {
     private static final String LOGGER_GET_BOOKINGS_BY_USER_MESSAGE = "Returning bookings by user";
     private static final String LOGGER_GET_BOOKINGS_BY_USER_ITEMS_MESSAGE = "Returning bookings by user items";
     private static final String LOGGER_ADD_BOOKING_MESSAGE = "Adding booking";
+    private static final String LOGGER_EXPORT_BOOKINGS_BY_USER_MESSAGE = "Exporting bookings by user: {}";
+    private static final String LOGGER_EXPORT_BOOKINGS_BY_USER_ITEMS_MESSAGE = "Exporting bookings by user items: {}";
 
     private static final String LOGGER_GET_BOOKING_BY_ID_MESSAGE = "Getting booking with id: {}";
     private static final String LOGGER_UPDATE_BOOKING_MESSAGE = "Updating booking with id: {}";
+    private static final String LOGGER_UPDATE_BOOKINGS_MESSAGE = "Updating {} bookings";
     private static final String USER_ID_REQUEST_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_RESPONSE_HEADER = "X-Next-Cursor";
     private final BookingService bookingService;
 
     @PostMapping
@@ -32,26 +45,62 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public BookingResponseDto getBookingById(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable("bookingId") int bookingId) {
+    public ResponseEntity<BookingResponseDto> getBookingById(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable("bookingId") int bookingId, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info(LOGGER_GET_BOOKING_BY_ID_MESSAGE, bookingId);
-        return bookingService.getById(userId, bookingId);
+        Optional<String> tag = bookingService.getEntityTag(userId, bookingId);
+        if (tag.isPresent() && VersionTag.matches(ifNoneMatch, tag.get()))
+            return VersionTag.notModified(tag.get());
+        return VersionTag.ok(bookingService.getTaggedById(userId, bookingId));
     }
 
     @GetMapping
-    public List<BookingResponseDto> getUserBookings(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @RequestParam(defaultValue = "ALL") String state, @RequestParam(defaultValue = "0") int from, @RequestParam(defaultValue = "20") int size) {
-        log.info("Get booking with state {}, userId={}, from={}, size={}", state, userId, from, size);
-        return bookingService.getAllByBooker(userId, state, from, size);
+    public ResponseEntity<List<BookingResponseDto>> getUserBookings(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @RequestParam(defaultValue = "ALL") String state, @RequestParam(defaultValue = "0") int from, @RequestParam(defaultValue = "20") int size, @RequestParam(required = false) String cursor) {
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", state, userId, from, size, cursor);
+        List<BookingResponseDto> bookings = cursor == null
+                ? bookingService.getAllByBooker(userId, state, from, size)
+                : bookingService.getAllByBooker(userId, state, BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getBookingsByItemsOwner(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @RequestParam(defaultValue = "ALL") String state, @RequestParam(defaultValue = "0") int from, @RequestParam(defaultValue = "20") int size) {
+    public ResponseEntity<List<BookingResponseDto>> getBookingsByItemsOwner(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @RequestParam(defaultValue = "ALL") String state, @RequestParam(defaultValue = "0") int from, @RequestParam(defaultValue = "20") int size, @RequestParam(required = false) String cursor) {
         log.info(LOGGER_GET_BOOKINGS_BY_USER_ITEMS_MESSAGE);
-        return bookingService.getAllByItemsOwner(userId, state, from, size);
+        List<BookingResponseDto> bookings = cursor == null
+                ? bookingService.getAllByItemsOwner(userId, state, from, size)
+                : bookingService.getAllByItemsOwner(userId, state, BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUserBookings(@RequestHeader(USER_ID_REQUEST_HEADER) int userId) {
+        log.info(LOGGER_EXPORT_BOOKINGS_BY_USER_MESSAGE, userId);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(bookingService.exportAllByBooker(userId));
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByItemsOwner(@RequestHeader(USER_ID_REQUEST_HEADER) int userId) {
+        log.info(LOGGER_EXPORT_BOOKINGS_BY_USER_ITEMS_MESSAGE, userId);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(bookingService.exportAllByItemsOwner(userId));
     }
 
     @PatchMapping("/{bookingId}")
-    public BookingResponseDto updateBookingStatus(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable("bookingId") int bookingId, @RequestParam boolean approved) {
+    public ResponseEntity<BookingResponseDto> updateBookingStatus(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable("bookingId") int bookingId, @RequestParam boolean approved, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info(LOGGER_UPDATE_BOOKING_MESSAGE, bookingId);
-        return bookingService.updateBookingStatus(userId, bookingId, approved);
+        BookingResponseDto booking = bookingService.updateBookingStatus(userId, bookingId, approved, VersionTag.parse(ifMatch));
+        return VersionTag.ok(booking, booking.getVersion());
+    }
+
+    @PatchMapping("/batch")
+    public List<BookingDecisionResultDto> updateBookingStatuses(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @RequestBody List<BookingDecisionDto> decisions) {
+        log.info(LOGGER_UPDATE_BOOKINGS_MESSAGE, decisions.size());
+        return bookingService.updateBookingStatuses(userId, decisions);
+    }
+
+    private ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            response.header(NEXT_CURSOR_RESPONSE_HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode());
+        }
+        return response.body(bookings);
     }
 }
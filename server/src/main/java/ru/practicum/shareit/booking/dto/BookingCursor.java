@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.common.KeysetCursor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BookingCursor {
+    private LocalDateTime start;
+    private Integer id;
+
+    public static BookingCursor of(BookingResponseDto booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    public static BookingCursor decode(String cursor) {
+        return KeysetCursor.decode(cursor, BookingCursor::new);
+    }
+
+    public String encode() {
+        return KeysetCursor.encode(start, id);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+
+@Data
+@AllArgsConstructor
+@Builder
+public class BookingDecisionDto {
+    private Integer bookingId;
+    private Boolean approved;
+    private Integer expectedVersion;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+
+@Data
+@AllArgsConstructor
+@Builder
+public class BookingDecisionResultDto {
+    private Integer bookingId;
+    private BookingResponseDto booking;
+    private String error;
+}
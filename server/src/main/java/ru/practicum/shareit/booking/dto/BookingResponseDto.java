@@ -24,4 +24,5 @@ public class BookingResponseDto {
 
     private ItemBookingDto item;
     private UserBookingDto booker;
+    private Integer version;
 }
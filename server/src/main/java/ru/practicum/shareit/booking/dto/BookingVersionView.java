@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface BookingVersionView {
+    Integer getVersion();
+
+    Integer getItemVersion();
+
+    Integer getBookerId();
+
+    Integer getOwnerId();
+}
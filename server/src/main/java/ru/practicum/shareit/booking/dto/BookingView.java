@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+@Builder
+public class BookingView {
+    Integer id;
+
+    LocalDateTime startDate;
+
+    LocalDateTime endDate;
+
+    String status;
+
+    Integer bookerId;
+
+    Integer version;
+
+    Integer itemId;
+
+    String itemName;
+}
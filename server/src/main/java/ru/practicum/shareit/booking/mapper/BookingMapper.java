@@ -5,10 +5,15 @@ import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemBookingDto;
 import ru.practicum.shareit.user.dto.UserBookingDto;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
 
 @Component
 public class BookingMapper {
@@ -26,9 +31,36 @@ public class BookingMapper {
                                 .name(booking.getItem().getName()).build()
                 )
                 .booker(UserBookingDto.builder().id(booking.getBooker().getId()).build())
+                .version(booking.getVersion())
                 .build();
     }
 
+    public BookingResponseDto mapToBookingDto(BookingView booking) {
+        return BookingResponseDto.builder()
+                .id(booking.getId())
+                .start(booking.getStartDate())
+                .end(booking.getEndDate())
+                .itemId(booking.getItemId())
+                .status(booking.getStatus())
+                .item(ItemBookingDto.builder().id(booking.getItemId()).name(booking.getItemName()).build())
+                .booker(UserBookingDto.builder().id(booking.getBookerId()).build())
+                .version(booking.getVersion())
+                .build();
+    }
+
+    public BookingResponseDto mapRowToBookingDto(ResultSet resultSet, int rowNum) throws SQLException {
+        int itemId = resultSet.getInt("item_id");
+        return BookingResponseDto.builder()
+                .id(resultSet.getInt("booking_id"))
+                .start(resultSet.getObject("start_date", LocalDateTime.class))
+                .end(resultSet.getObject("end_date", LocalDateTime.class))
+                .itemId(itemId)
+                .status(resultSet.getString("status"))
+                .item(ItemBookingDto.builder().id(itemId).name(resultSet.getString("item_name")).build())
+                .booker(UserBookingDto.builder().id(resultSet.getInt("booker_id")).build())
+                .version(resultSet.getInt("version"))
+                .build();
+    }
 
     public BookingItemDto mapToBookingItemView(Booking booking) {
         return BookingItemDto.builder()
@@ -40,7 +72,6 @@ public class BookingMapper {
 
     public Booking mapToBooking(BookingRequestDto bookingRequestDto) {
         return Booking.builder()
-                .id(bookingRequestDto.getId())
                 .start(bookingRequestDto.getStart())
                 .end(bookingRequestDto.getEnd())
                 .build();
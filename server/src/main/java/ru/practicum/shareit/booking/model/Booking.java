@@ -20,19 +20,31 @@ import java.time.LocalDateTime;
 public class Booking {
     @Column(name = "booking_id")
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Integer id;
     @Column(name = "start_date", nullable = false, columnDefinition = "TIMESTAMP")
     private LocalDateTime start;
     @Column(name = "end_date", nullable = false, columnDefinition = "TIMESTAMP")
     private LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     private User booker;
+    @Column(name = "owner_id")
+    private Integer ownerId;
     @Column(name = "status", nullable = false, length = 8)
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
+    @PrePersist
+    void fillOwnerId() {
+        if (ownerId == null && item != null && item.getOwner() != null)
+            ownerId = item.getOwner().getId();
+    }
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.util.Collection;
+
+public interface BookingArchiveRepository {
+
+    int copyToArchive(Collection<Integer> bookingIds);
+
+    int deleteArchived(Collection<Integer> bookingIds);
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+
+public class BookingArchiveRepositoryImpl implements BookingArchiveRepository {
+    private static final String COPY_TO_ARCHIVE = "insert into bookings_archive " +
+            "(booking_id, start_date, end_date, item_id, booker_id, owner_id, status, version) " +
+            "select bk.booking_id, bk.start_date, bk.end_date, bk.item_id, bk.booker_id, bk.owner_id, bk.status, bk.version " +
+            "from bookings as bk where bk.booking_id IN (:bookingIds) ";
+    private static final String DELETE_ARCHIVED = "delete from bookings where booking_id IN (:bookingIds) ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public BookingArchiveRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int copyToArchive(Collection<Integer> bookingIds) {
+        return jdbcTemplate.update(COPY_TO_ARCHIVE, new MapSqlParameterSource("bookingIds", bookingIds));
+    }
+
+    @Override
+    public int deleteArchived(Collection<Integer> bookingIds) {
+        return jdbcTemplate.update(DELETE_ARCHIVED, new MapSqlParameterSource("bookingIds", bookingIds));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingSelectionState;
+
+public final class BookingListingQuery {
+    private static final String AFTER_CURSOR =
+            "AND (bk.start_date < :cursorStart OR (bk.start_date = :cursorStart AND bk.booking_id < :cursorId)) ";
+
+    private BookingListingQuery() {
+    }
+
+    public static String build(BookingRole role, BookingSelectionState state, boolean afterCursor) {
+        String filter = "where bk." + participantColumn(role) + " = :userId " + statePredicate(state) +
+                (afterCursor ? AFTER_CURSOR : "");
+        String page = afterCursor ? "LIMIT :size " : "LIMIT :size OFFSET :from ";
+        if (!includesArchive(state))
+            return branch("bookings", filter) + page;
+        // a branch only contributes rows up to the end of the page, after a cursor that is one page at any depth
+        String branchLimit = afterCursor ? "LIMIT :size" : "LIMIT :from + :size";
+        return "select * from (" +
+                "(" + branch("bookings", filter) + branchLimit + ") " +
+                "union all " +
+                "(" + branch("bookings_archive", filter) + branchLimit + ")" +
+                ") as b " +
+                "ORDER BY b.start_date DESC, b.booking_id DESC " +
+                page;
+    }
+
+    public static boolean includesArchive(BookingSelectionState state) {
+        // archived bookings have ended long ago, so they never match current or future selections
+        return state != BookingSelectionState.CURRENT && state != BookingSelectionState.FUTURE;
+    }
+
+    private static String branch(String table, String filter) {
+        return BookingRepository.EXPORT_COLUMNS + "from " + table + " as bk join items as i on i.item_id = bk.item_id " +
+                filter + BookingRepository.NEWEST_FIRST;
+    }
+
+    private static String participantColumn(BookingRole role) {
+        return role == BookingRole.BOOKER ? "booker_id" : "owner_id";
+    }
+
+    private static String statePredicate(BookingSelectionState state) {
+        switch (state) {
+            case CURRENT:
+                return "AND bk.start_date <= CURRENT_TIMESTAMP AND bk.end_date > CURRENT_TIMESTAMP ";
+            case PAST:
+                return "AND bk.end_date < CURRENT_TIMESTAMP ";
+            case FUTURE:
+                return "AND CAST(bk.start_date AS DATE) >= CURRENT_DATE ";
+            case WAITING:
+            case REJECTED:
+                return "AND bk.status = :status ";
+            default:
+                return "";
+        }
+    }
+}
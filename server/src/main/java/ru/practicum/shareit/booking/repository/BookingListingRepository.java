@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingSelectionState;
+
+import java.util.List;
+
+public interface BookingListingRepository {
+
+    List<BookingView> findAllByRole(BookingRole role, int userId, BookingSelectionState state, int from, int size);
+
+    List<BookingView> findAllByRoleAfterCursor(BookingRole role, int userId, BookingSelectionState state, BookingCursor cursor, int size);
+}
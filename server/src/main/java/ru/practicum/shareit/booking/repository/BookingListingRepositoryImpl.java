@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingSelectionState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BookingListingRepositoryImpl implements BookingListingRepository {
+    private static final RowMapper<BookingView> BOOKING_VIEW_ROW_MAPPER = (resultSet, rowNum) -> BookingView.builder()
+            .id(resultSet.getInt("booking_id"))
+            .startDate(resultSet.getObject("start_date", LocalDateTime.class))
+            .endDate(resultSet.getObject("end_date", LocalDateTime.class))
+            .status(resultSet.getString("status"))
+            .bookerId(resultSet.getInt("booker_id"))
+            .version(resultSet.getInt("version"))
+            .itemId(resultSet.getInt("item_id"))
+            .itemName(resultSet.getString("item_name"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public BookingListingRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<BookingView> findAllByRole(BookingRole role, int userId, BookingSelectionState state, int from, int size) {
+        MapSqlParameterSource parameters = parameters(userId, state, size)
+                .addValue("from", from);
+        return jdbcTemplate.query(BookingListingQuery.build(role, state, false), parameters, BOOKING_VIEW_ROW_MAPPER);
+    }
+
+    @Override
+    public List<BookingView> findAllByRoleAfterCursor(BookingRole role, int userId, BookingSelectionState state,
+                                                      BookingCursor cursor, int size) {
+        MapSqlParameterSource parameters = parameters(userId, state, size)
+                .addValue("cursorStart", cursor.getStart())
+                .addValue("cursorId", cursor.getId());
+        return jdbcTemplate.query(BookingListingQuery.build(role, state, true), parameters, BOOKING_VIEW_ROW_MAPPER);
+    }
+
+    private static MapSqlParameterSource parameters(int userId, BookingSelectionState state, int size) {
+        return new MapSqlParameterSource("userId", userId)
+                .addValue("status", state.name())
+                .addValue("size", size);
+    }
+}
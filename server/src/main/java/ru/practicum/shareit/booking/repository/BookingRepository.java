@@ -1,119 +1,96 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Integer> {
-
+public interface BookingRepository extends JpaRepository<Booking, Integer>, BookingArchiveRepository,
+        BookingListingRepository {
+
+    String NEWEST_FIRST = "ORDER BY bk.start_date DESC, bk.booking_id DESC ";
+    String EXPORT_COLUMNS = "select bk.booking_id, bk.start_date, bk.end_date, bk.status, bk.booker_id, bk.version, " +
+            "i.item_id, i.name as item_name ";
+    // archived bookings interleave with live ones by start date, so the export is ordered across both tables,
+    // each branch is read in index order and the two are merged rather than sorted
+    String EXPORT_BY_BOOKER = "select * from (" +
+            EXPORT_COLUMNS + "from bookings as bk join items as i on i.item_id = bk.item_id where bk.booker_id = :userId " +
+            "UNION ALL " +
+            EXPORT_COLUMNS + "from bookings_archive as bk join items as i on i.item_id = bk.item_id where bk.booker_id = :userId" +
+            ") as b ORDER BY b.start_date DESC, b.booking_id DESC ";
+    String EXPORT_BY_OWNER = "select * from (" +
+            EXPORT_COLUMNS + "from bookings as bk join items as i on i.item_id = bk.item_id where bk.owner_id = :userId " +
+            "UNION ALL " +
+            EXPORT_COLUMNS + "from bookings_archive as bk join items as i on i.item_id = bk.item_id where bk.owner_id = :userId" +
+            ") as b ORDER BY b.start_date DESC, b.booking_id DESC ";
 
     List<Booking> findAllByBooker_IdAndItem_IdAndStatusAndEndIsBefore(int bookerId, int itemId, BookingStatus status, LocalDateTime end);
 
-    @Query(value = "select *  " +
-            "from bookings as bk " +
-            "where bk.item_id=:itemId and bk.start_date=(select max(start_date) FROM bookings as bk " +
-            "where bk.item_id=:itemId and bk.start_date < CURRENT_TIMESTAMP and bk.status='APPROVED') ", nativeQuery = true)
-    Optional<Booking> findLastBookingDateForItem(@Param("itemId") int itemId);
+    boolean existsByItem_IdAndStatusAndStartBeforeAndEndAfter(int itemId, BookingStatus status, LocalDateTime end, LocalDateTime start);
 
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.item_id=:itemId and bk.start_date=( select min (start_date) FROM bookings as bk " +
-            "where bk.item_id=:itemId and bk.start_date >= CURRENT_TIMESTAMP and bk.status='APPROVED') ", nativeQuery = true)
-    Optional<Booking> findNextBookingDateForItem(@Param("itemId") int itemId);
+    boolean existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(int itemId, BookingStatus status, LocalDateTime end, LocalDateTime start, int bookingId);
 
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.booker_id=:bookerId " +
-            "ORDER BY bk.start_date DESC " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true)
-    List<Booking> findAllByUser(@Param("bookerId") int bookerId, @Param("from") int from, @Param("size") int size);
+    List<Booking> findAllByItem_IdInAndStatusAndStartBeforeAndEndAfter(Collection<Integer> itemIds, BookingStatus status, LocalDateTime end, LocalDateTime start);
 
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Integer bookingId);
 
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.booker_id=:bookerId AND bk.status=:status " +
-            "ORDER BY bk.start_date DESC " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true)
-    List<Booking> findAllByUserAndStatus(@Param("bookerId") int bookerId, @Param("status") String status, @Param("from") int from, @Param("size") int size);
+    @Query("select distinct b.item.id from Booking b where b.id in :bookingIds and b.ownerId = :ownerId")
+    List<Integer> findItemIdsByIdInAndOwnerId(@Param("bookingIds") Collection<Integer> bookingIds, @Param("ownerId") int ownerId);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.id in :bookingIds order by b.id")
+    List<Booking> findAllByIdForUpdate(@Param("bookingIds") Collection<Integer> bookingIds);
 
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.item_id=:itemId " +
-            "ORDER BY bk.start_date DESC " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true)
-    List<Booking> findAllByItemId(@Param("itemId") int itemId, @Param("from") int from, @Param("size") int size);
-
+    @Query(value = "select * from bookings_archive as bk where bk.booking_id=:bookingId ", nativeQuery = true)
+    Optional<Booking> findArchivedById(@Param("bookingId") int bookingId);
 
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.booker_id=:bookerId and  CAST(bk.start_date AS DATE) >= CURRENT_DATE " +
-            "order by bk.start_date desc " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true
-    )
-    List<Booking> findAllFutureBookingsByUser(@Param("bookerId") int bookerId, @Param("from") int from, @Param("size") int size);
+    @Query(value = "select count(*) > 0 " +
+            "from bookings_archive as bk " +
+            "where bk.booker_id=:bookerId and bk.item_id=:itemId and bk.status='APPROVED' ", nativeQuery = true)
+    boolean existsArchivedApprovedBooking(@Param("bookerId") int bookerId, @Param("itemId") int itemId);
 
+    @Query(value = "select bk.booking_id from bookings as bk " +
+            "where bk.end_date < :threshold " +
+            "ORDER BY bk.end_date " +
+            "LIMIT :batchSize FOR UPDATE ", nativeQuery = true)
+    List<Integer> findIdsToArchive(@Param("threshold") LocalDateTime threshold, @Param("batchSize") int batchSize);
 
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.booker_id=:bookerId and bk.start_date <= CURRENT_TIMESTAMP AND bk.end_date > CURRENT_TIMESTAMP " +
-            "order by bk.start_date desc " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true
-    )
-    List<Booking> findAllCurrentBookingsByUser(@Param("bookerId") int bookerId, @Param("from") int from, @Param("size") int size);
+    @Query(value = "select bk.version as version, i.version as itemVersion, bk.booker_id as bookerId, i.user_id as ownerId " +
+            "from bookings as bk join items as i on i.item_id = bk.item_id where bk.booking_id = :bookingId " +
+            "union all " +
+            "select bk.version as version, i.version as itemVersion, bk.booker_id as bookerId, i.user_id as ownerId " +
+            "from bookings_archive as bk join items as i on i.item_id = bk.item_id where bk.booking_id = :bookingId ", nativeQuery = true)
+    Optional<BookingVersionView> findVersionViewById(@Param("bookingId") int bookingId);
 
+    @Query(value = "select bk.* from items as i join bookings as bk on bk.booking_id = i.last_booking_id " +
+            "where i.item_id IN (:itemIds) " +
+            "union all " +
+            "select bk.* from items as i join bookings as bk on bk.booking_id = i.next_booking_id " +
+            "where i.item_id IN (:itemIds) " +
+            "union all " +
+            "select bk.* from items as i join bookings_archive as bk on bk.booking_id = i.last_booking_id " +
+            "where i.item_id IN (:itemIds) ", nativeQuery = true)
+    List<Booking> findPointedBookingsForItems(@Param("itemIds") Collection<Integer> itemIds);
 
+    // item_id is fixed by the filter, leading with it lets the sort match idx_bookings_item_start
+    // instead of tying with idx_bookings_item_status_start
     @Query(value = "select * " +
             "from bookings as bk " +
-            "where bk.booker_id=:bookerId AND bk.end_date < CURRENT_TIMESTAMP " +
-            "order by bk.start_date desc " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true
-    )
-    List<Booking> findAllPastBookingsByUser(@Param("bookerId") int bookerId, @Param("from") int from, @Param("size") int size);
-
-
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.item_id IN (SELECT item_id from items AS i WHERE i.user_id= :userId) " +
-            "ORDER BY bk.start_date DESC " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true)
-    List<Booking> findAllByOwnerItems(@Param("userId") int userId, @Param("from") int from, @Param("size") int size);
-
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.item_id IN (SELECT item_id from items AS i WHERE i.user_id= :userId) " +
-            "AND CAST(bk.start_date AS DATE) >= CURRENT_DATE " +
-            "ORDER BY bk.start_date DESC " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true)
-    List<Booking> findAllFutureBookingsByOwnerItems(@Param("userId") int userId, @Param("from") int from, @Param("size") int size);
-
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.item_id IN (SELECT item_id from items AS i WHERE i.user_id= :userId) " +
-            "AND bk.start_date <= CURRENT_TIMESTAMP AND bk.end_date > CURRENT_TIMESTAMP " +
-            "ORDER BY bk.start_date DESC " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true)
-    List<Booking> findAllCurrentBookingsByOwnerItems(@Param("userId") int userId, @Param("from") int from, @Param("size") int size);
-
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.item_id IN (SELECT item_id from items AS i WHERE i.user_id= :userId) " +
-            "AND bk.end_date < CURRENT_TIMESTAMP " +
-            "ORDER BY bk.start_date DESC " +
+            "where bk.item_id=:itemId " +
+            "ORDER BY bk.item_id, bk.start_date DESC, bk.booking_id DESC " +
             "LIMIT :size OFFSET :from ", nativeQuery = true)
-    List<Booking> findAllPastBookingsByOwnerItems(@Param("userId") int userId, @Param("from") int from, @Param("size") int size);
+    List<Booking> findAllByItemId(@Param("itemId") int itemId, @Param("from") int from, @Param("size") int size);
 
-    @Query(value = "select * " +
-            "from bookings as bk " +
-            "where bk.item_id IN (SELECT item_id from items AS i WHERE i.user_id= :userId) " +
-            "AND bk.status=:status " +
-            "ORDER BY bk.start_date DESC " +
-            "LIMIT :size OFFSET :from ", nativeQuery = true)
-    List<Booking> findAllBookingsByOwnerItemsAndStatus(@Param("userId") int userId, @Param("status") String status, @Param("from") int from, @Param("size") int size);
 }
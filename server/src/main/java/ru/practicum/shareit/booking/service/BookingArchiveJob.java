@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+public class BookingArchiveJob {
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final int batchSize;
+
+    public BookingArchiveJob(BookingRepository bookingRepository,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${shareit.bookings.archive.horizon}") Duration horizon,
+                             @Value("${shareit.bookings.archive.batch-size}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${shareit.bookings.archive.cron}")
+    public void archiveFinishedBookings() {
+        archiveBookingsEndedBefore(LocalDateTime.now().minus(horizon));
+    }
+
+    public int archiveBookingsEndedBefore(LocalDateTime threshold) {
+        int archived = 0;
+        Integer batch;
+        do {
+            batch = transactionTemplate.execute(status -> archiveBatch(threshold));
+            archived += batch;
+        } while (batch == batchSize);
+        if (archived > 0)
+            log.info("Archived {} bookings ended before {}", archived, threshold);
+        return archived;
+    }
+
+    private Integer archiveBatch(LocalDateTime threshold) {
+        List<Integer> bookingIds = bookingRepository.findIdsToArchive(threshold, batchSize);
+        if (bookingIds.isEmpty())
+            return 0;
+        bookingRepository.copyToArchive(bookingIds);
+        bookingRepository.deleteArchived(bookingIds);
+        return bookingIds.size();
+    }
+}
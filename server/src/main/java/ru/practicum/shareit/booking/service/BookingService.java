@@ -1,18 +1,38 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.common.TaggedBody;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingService {
     BookingResponseDto add(int bookerId, BookingRequestDto booking);
 
     BookingResponseDto getById(int userId, int id);
 
+    TaggedBody<BookingResponseDto> getTaggedById(int userId, int id);
+
+    Optional<String> getEntityTag(int userId, int id);
+
     List<BookingResponseDto> getAllByBooker(int bookerId, String state, int from, int size);
 
     List<BookingResponseDto> getAllByItemsOwner(int userId, String state, int from, int size);
 
-    BookingResponseDto updateBookingStatus(int userId, int bookingId, boolean approved);
+    List<BookingResponseDto> getAllByBooker(int bookerId, String state, BookingCursor cursor, int size);
+
+    List<BookingResponseDto> getAllByItemsOwner(int userId, String state, BookingCursor cursor, int size);
+
+    StreamingResponseBody exportAllByBooker(int bookerId);
+
+    StreamingResponseBody exportAllByItemsOwner(int userId);
+
+    BookingResponseDto updateBookingStatus(int userId, int bookingId, boolean approved, Integer expectedVersion);
+
+    List<BookingDecisionResultDto> updateBookingStatuses(int userId, List<BookingDecisionDto> decisions);
 }
@@ -1,23 +1,43 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingSelectionState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.JsonLinesExporter;
+import ru.practicum.shareit.common.TaggedBody;
+import ru.practicum.shareit.common.VersionTag;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.item.service.ItemServiceImpl.ITEM_NOT_FOUND_MESSAGE;
@@ -29,6 +49,8 @@ public class BookingServiceImpl implements BookingService {
 
 
     public static final String BOOKING_NOT_FOUND_MESSAGE = "Booking with id %d not found";
+    public static final String BOOKING_VERSION_CONFLICT_MESSAGE = "Booking with id %d has been modified by another request";
+    public static final String INCOMPLETE_BOOKING_DECISION_MESSAGE = "A booking decision needs both bookingId and approved";
 
     public static final String BOOKING_STATUS_ALREADY_ACCEPTED_OR_REJECTED_MESSAGE = "Booking status was already accepted or rejected";
     private static final String BOOKING_OWNER_EQUALS_BOOKER_MESSAGE = "You cannot be an owner and a booker of the item at the same time";
@@ -36,6 +58,8 @@ public class BookingServiceImpl implements BookingService {
 
     public static final String STATUS_NOT_SUPPORTED_MESSAGE = "Unknown state: %s";
 
+    public static final String BOOKING_OVERLAP_MESSAGE = "Item with id %d is already booked for this period";
+
 
     private static final String WRONG_OWNER_MESSAGE = "You are not an owner ot this item!";
     private static final String WRONG_OWNER_OR_BOOKER_MESSAGE = "You are not an owner or booker!";
@@ -43,9 +67,12 @@ public class BookingServiceImpl implements BookingService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final BookingMapper mapper;
+    private final JsonLinesExporter exporter;
 
     @Override
+    @Transactional
     public BookingResponseDto add(int bookerId, BookingRequestDto bookingRequestDto) {
 
         Optional<User> optionalBooker = userRepository.findById(bookerId);
@@ -60,21 +87,35 @@ public class BookingServiceImpl implements BookingService {
         }
         if (optionalItem.get().getOwner().getId().equals(bookerId))
             throw new BookingOwnerEqualsBookerException(BOOKING_OWNER_EQUALS_BOOKER_MESSAGE);
+        if (bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(item.getId(), BookingStatus.APPROVED,
+                bookingRequestDto.getEnd(), bookingRequestDto.getStart()))
+            throw new BookingOverlapException(BOOKING_OVERLAP_MESSAGE, item.getId());
 
         Booking booking = mapper.mapToBooking(bookingRequestDto);
         booking.setItem(optionalItem.get());
         booking.setBooker(optionalBooker.get());
         booking.setStatus(BookingStatus.WAITING);
-        return mapper.mapToBookingDto(bookingRepository.save(booking));
+        BookingResponseDto savedBooking = mapper.mapToBookingDto(bookingRepository.saveAndFlush(booking));
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId()));
+        return savedBooking;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingResponseDto getById(int userId, int bookingId) {
+        return getTaggedById(userId, bookingId).getBody();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaggedBody<BookingResponseDto> getTaggedById(int userId, int bookingId) {
         Optional<User> optionalUser = userRepository.findById(userId);
         if (optionalUser.isEmpty())
             throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, userId);
 
         Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
+        if (optionalBooking.isEmpty())
+            optionalBooking = bookingRepository.findArchivedById(bookingId);
         if (optionalBooking.isEmpty())
             throw new EntityNotFoundException(BOOKING_NOT_FOUND_MESSAGE, bookingId);
 
@@ -84,92 +125,93 @@ public class BookingServiceImpl implements BookingService {
         if (!isUserIdEqualsBookerOrItemOwnerId)
             throw new WrongOwnerOrBookerException(WRONG_OWNER_OR_BOOKER_MESSAGE);
 
-        return mapper.mapToBookingDto(optionalBooking.get());
+        Booking booking = optionalBooking.get();
+        return new TaggedBody<>(mapper.mapToBookingDto(booking),
+                VersionTag.compose(booking.getVersion(), booking.getItem().getVersion()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> getEntityTag(int userId, int bookingId) {
+        return bookingRepository.findVersionViewById(bookingId)
+                .filter(view -> view.getBookerId() == userId || view.getOwnerId() == userId)
+                .map(view -> VersionTag.compose(view.getVersion(), view.getItemVersion()));
+    }
+
+
+    @Override
+    @Transactional(readOnly = true)
+    public StreamingResponseBody exportAllByBooker(int bookerId) {
+        if (userRepository.findById(bookerId).isEmpty())
+            throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, bookerId);
+        return exporter.export(mapper::mapRowToBookingDto, new MapSqlParameterSource("userId", bookerId),
+                BookingRepository.EXPORT_BY_BOOKER);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public StreamingResponseBody exportAllByItemsOwner(int userId) {
+        if (userRepository.findById(userId).isEmpty())
+            throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, userId);
+        return exporter.export(mapper::mapRowToBookingDto, new MapSqlParameterSource("userId", userId),
+                BookingRepository.EXPORT_BY_OWNER);
+    }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingResponseDto> getAllByBooker(int bookerId, String state, int from, int size) {
 
         Optional<User> optionalBooker = userRepository.findById(bookerId);
         if (optionalBooker.isEmpty())
             throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, bookerId);
 
-        List<Booking> result = new ArrayList<>();
-        BookingSelectionState selectionState;
-        try {
-            selectionState = BookingSelectionState.valueOf(state);
-        } catch (IllegalArgumentException exception) {
-            throw new UnsupportedStatusException(STATUS_NOT_SUPPORTED_MESSAGE, state);
-        }
-        switch (selectionState) {
-            case ALL:
-                result = bookingRepository
-                        .findAllByUser(bookerId, from, size);
-                break;
-            case CURRENT:
-                result = bookingRepository
-                        .findAllCurrentBookingsByUser(bookerId, from, size);
-                break;
-            case PAST:
-                result = bookingRepository
-                        .findAllPastBookingsByUser(bookerId, from, size);
-                break;
-            case FUTURE:
-                result = bookingRepository
-                        .findAllFutureBookingsByUser(bookerId, from, size);
-                break;
-            case WAITING:
-            case REJECTED:
-                result = bookingRepository
-                        .findAllByUserAndStatus(bookerId, selectionState.name(), from, size);
-                break;
-        }
-
-        return result.stream().map(mapper::mapToBookingDto)
+        return bookingRepository.findAllByRole(BookingRole.BOOKER, bookerId, parseSelectionState(state), from, size)
+                .stream().map(mapper::mapToBookingDto)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingResponseDto> getAllByItemsOwner(int userId, String state, int from, int size) {
 
         Optional<User> optionalUser = userRepository.findById(userId);
         if (optionalUser.isEmpty())
             throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, userId);
 
+        return bookingRepository.findAllByRole(BookingRole.OWNER, userId, parseSelectionState(state), from, size)
+                .stream().map(mapper::mapToBookingDto)
+                .collect(Collectors.toList());
+    }
 
-        List<Booking> result = new ArrayList<>();
-        BookingSelectionState selectionState;
-        try {
-            selectionState = BookingSelectionState.valueOf(state);
-        } catch (IllegalArgumentException exception) {
-            throw new UnsupportedStatusException(STATUS_NOT_SUPPORTED_MESSAGE, state);
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingResponseDto> getAllByBooker(int bookerId, String state, BookingCursor cursor, int size) {
 
-        switch (selectionState) {
-            case ALL:
-                result = bookingRepository.findAllByOwnerItems(userId, from, size);
-                break;
-            case CURRENT:
-                result = bookingRepository.findAllCurrentBookingsByOwnerItems(userId, from, size);
-                break;
-            case PAST:
-                result = bookingRepository.findAllPastBookingsByOwnerItems(userId, from, size);
-                break;
-            case FUTURE:
-                result = bookingRepository.findAllFutureBookingsByOwnerItems(userId, from, size);
-                break;
-            case WAITING:
-            case REJECTED:
-                result = bookingRepository.findAllBookingsByOwnerItemsAndStatus(userId, state, from, size);
-                break;
-        }
-        return result.stream().map(mapper::mapToBookingDto)
+        Optional<User> optionalBooker = userRepository.findById(bookerId);
+        if (optionalBooker.isEmpty())
+            throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, bookerId);
+
+        return bookingRepository.findAllByRoleAfterCursor(BookingRole.BOOKER, bookerId, parseSelectionState(state), cursor, size)
+                .stream().map(mapper::mapToBookingDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public BookingResponseDto updateBookingStatus(int userId, int bookingId, boolean approved) {
+    @Transactional(readOnly = true)
+    public List<BookingResponseDto> getAllByItemsOwner(int userId, String state, BookingCursor cursor, int size) {
+
+        Optional<User> optionalUser = userRepository.findById(userId);
+        if (optionalUser.isEmpty())
+            throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, userId);
+
+        return bookingRepository.findAllByRoleAfterCursor(BookingRole.OWNER, userId, parseSelectionState(state), cursor, size)
+                .stream().map(mapper::mapToBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public BookingResponseDto updateBookingStatus(int userId, int bookingId, boolean approved, Integer expectedVersion) {
         Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
         if (optionalBooking.isEmpty())
             throw new EntityNotFoundException(BOOKING_NOT_FOUND_MESSAGE, bookingId);
@@ -188,11 +230,134 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingStatusAlreadyAcceptedOrRejectedException(BOOKING_STATUS_ALREADY_ACCEPTED_OR_REJECTED_MESSAGE);
         }
 
+        if (expectedVersion != null && !expectedVersion.equals(oldBooking.getVersion()))
+            throw new VersionConflictException(BOOKING_VERSION_CONFLICT_MESSAGE, bookingId);
+
         if (approved) {
+            int itemId = oldBooking.getItem().getId();
+            itemRepository.findByIdForUpdate(itemId);
+            if (bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(itemId, BookingStatus.APPROVED,
+                    oldBooking.getEnd(), oldBooking.getStart(), oldBooking.getId()))
+                throw new BookingOverlapException(BOOKING_OVERLAP_MESSAGE, itemId);
             oldBooking.setStatus(BookingStatus.APPROVED);
         } else {
             oldBooking.setStatus(BookingStatus.REJECTED);
         }
-        return mapper.mapToBookingDto(bookingRepository.save(oldBooking));
+        BookingResponseDto savedBooking = mapper.mapToBookingDto(bookingRepository.saveAndFlush(oldBooking));
+        if (approved)
+            itemRepository.refreshBookingPointers(oldBooking.getItem().getId(), LocalDateTime.now());
+        eventPublisher.publishEvent(new ItemChangedEvent(oldBooking.getItem().getId()));
+        return savedBooking;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> updateBookingStatuses(int userId, List<BookingDecisionDto> decisions) {
+        Optional<User> optionalUser = userRepository.findById(userId);
+        if (optionalUser.isEmpty())
+            throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, userId);
+
+        // an incomplete decision is reported on its own and never reaches the queries
+        Set<Integer> bookingIds = decisions.stream()
+                .filter(this::isComplete)
+                .map(BookingDecisionDto::getBookingId)
+                .collect(Collectors.toSet());
+        Set<Integer> ownedItemIds = new HashSet<>();
+        Map<Integer, Booking> bookings = new HashMap<>();
+        if (!bookingIds.isEmpty()) {
+            // items are locked before their bookings, in id order, the same way updateBookingStatus does
+            ownedItemIds.addAll(bookingRepository.findItemIdsByIdInAndOwnerId(bookingIds, userId));
+            if (!ownedItemIds.isEmpty())
+                itemRepository.findAllByIdForUpdate(ownedItemIds);
+            bookings = bookingRepository.findAllByIdForUpdate(bookingIds)
+                    .stream()
+                    .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        }
+        List<Booking> ownedBookings = bookings.values().stream()
+                .filter(booking -> Objects.equals(booking.getOwnerId(), userId))
+                .collect(Collectors.toList());
+        Map<Integer, List<Booking>> approvedBookings = findApprovedBookingsOverlapping(ownedBookings, ownedItemIds);
+
+        List<String> errors = new ArrayList<>();
+        Set<Integer> changedItemIds = new HashSet<>();
+        Set<Integer> approvedItemIds = new HashSet<>();
+        for (BookingDecisionDto decision : decisions) {
+            Integer bookingId = decision.getBookingId();
+            Booking booking = bookings.get(bookingId);
+            boolean approved = Boolean.TRUE.equals(decision.getApproved());
+            String error = null;
+            if (!isComplete(decision)) {
+                error = INCOMPLETE_BOOKING_DECISION_MESSAGE;
+            } else if (booking == null) {
+                error = String.format(BOOKING_NOT_FOUND_MESSAGE, bookingId);
+            } else if (!Objects.equals(booking.getOwnerId(), userId)) {
+                error = WRONG_OWNER_MESSAGE;
+            } else if (booking.getStatus().equals(BookingStatus.APPROVED) || booking.getStatus().equals(BookingStatus.REJECTED)) {
+                error = BOOKING_STATUS_ALREADY_ACCEPTED_OR_REJECTED_MESSAGE;
+            } else if (decision.getExpectedVersion() != null && !decision.getExpectedVersion().equals(booking.getVersion())) {
+                error = String.format(BOOKING_VERSION_CONFLICT_MESSAGE, bookingId);
+            } else if (approved && overlapsAny(booking, approvedBookings.getOrDefault(booking.getItem().getId(), List.of()))) {
+                error = String.format(BOOKING_OVERLAP_MESSAGE, booking.getItem().getId());
+            }
+            errors.add(error);
+            if (error != null)
+                continue;
+
+            int itemId = booking.getItem().getId();
+            if (approved) {
+                booking.setStatus(BookingStatus.APPROVED);
+                approvedBookings.computeIfAbsent(itemId, id -> new ArrayList<>()).add(booking);
+                approvedItemIds.add(itemId);
+            } else {
+                booking.setStatus(BookingStatus.REJECTED);
+            }
+            changedItemIds.add(itemId);
+        }
+
+        // the flush bumps the versions, mapping before it would hand out the pre-update ones
+        bookingRepository.flush();
+        List<BookingDecisionResultDto> results = new ArrayList<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            Integer bookingId = decisions.get(i).getBookingId();
+            String error = errors.get(i);
+            results.add(error == null
+                    ? new BookingDecisionResultDto(bookingId, mapper.mapToBookingDto(bookings.get(bookingId)), null)
+                    : new BookingDecisionResultDto(bookingId, null, error));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        approvedItemIds.forEach(itemId -> itemRepository.refreshBookingPointers(itemId, now));
+        changedItemIds.forEach(itemId -> eventPublisher.publishEvent(new ItemChangedEvent(itemId)));
+        return results;
+    }
+
+    private boolean isComplete(BookingDecisionDto decision) {
+        return decision.getBookingId() != null && decision.getApproved() != null;
+    }
+
+    private Map<Integer, List<Booking>> findApprovedBookingsOverlapping(List<Booking> bookings, Set<Integer> itemIds) {
+        Optional<LocalDateTime> windowStart = bookings.stream().map(Booking::getStart).min(Comparator.naturalOrder());
+        Optional<LocalDateTime> windowEnd = bookings.stream().map(Booking::getEnd).max(Comparator.naturalOrder());
+        if (windowStart.isEmpty() || windowEnd.isEmpty())
+            return new HashMap<>();
+        return bookingRepository.findAllByItem_IdInAndStatusAndStartBeforeAndEndAfter(itemIds, BookingStatus.APPROVED,
+                        windowEnd.get(), windowStart.get())
+                .stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(), HashMap::new, Collectors.toCollection(ArrayList::new)));
+    }
+
+    private boolean overlapsAny(Booking booking, List<Booking> approvedBookings) {
+        return approvedBookings.stream()
+                .anyMatch(approved -> !approved.getId().equals(booking.getId())
+                        && approved.getStart().isBefore(booking.getEnd())
+                        && approved.getEnd().isAfter(booking.getStart()));
+    }
+
+    private BookingSelectionState parseSelectionState(String state) {
+        try {
+            return BookingSelectionState.valueOf(state);
+        } catch (IllegalArgumentException exception) {
+            throw new UnsupportedStatusException(STATUS_NOT_SUPPORTED_MESSAGE, state);
+        }
     }
 }
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource implements MeterBinder {
+    public static final String HOLD_TIME_METRIC = "shareit.db.connection.hold";
+    private static final String NO_ENDPOINT = "none";
+    private static final String CLOSE_METHOD = "close";
+
+    private final String poolName;
+    private final Map<Tags, Timer> timers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource, String poolName) {
+        super(targetDataSource);
+        this.poolName = poolName;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers.clear();
+        this.meterRegistry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        long acquiredAt = System.nanoTime();
+        Tags tags = endpointTags();
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (CLOSE_METHOD.equals(method.getName()) && released.compareAndSet(false, true)) {
+                        record(tags, System.nanoTime() - acquiredAt);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private void record(Tags tags, long heldNanos) {
+        // connections closed while the context is still starting up are not recorded
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            // every close would otherwise rebuild the timer and look it up in the registry again
+            timers.computeIfAbsent(tags, endpoint -> Timer.builder(HOLD_TIME_METRIC)
+                            .tags(endpoint)
+                            .publishPercentileHistogram()
+                            .register(registry))
+                    .record(heldNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Tags endpointTags() {
+        // only the handler pattern is used, never the request path, so the tag sets and cached timers stay bounded
+        String method = NO_ENDPOINT;
+        String uri = NO_ENDPOINT;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            method = request.getMethod();
+            uri = pattern != null ? pattern.toString() : NO_ENDPOINT;
+        }
+        return Tags.of("pool", poolName, "method", method, "uri", uri);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+public final class EntityCacheEviction {
+
+    private EntityCacheEviction() {
+    }
+
+    public static void evict(EntityManager entityManager, Class<?> entityClass, Object id) {
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(entityClass, id);
+        StaleReplicaPutGuard.recordEviction(entityManagerFactory, entityClass, id);
+        // another transaction can still cache the old row until this one commits, so evict once more afterwards
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(entityClass, id);
+                    // the replica lag is counted from the commit
+                    StaleReplicaPutGuard.recordEviction(entityManagerFactory, entityClass, id);
+                }
+            });
+        }
+    }
+}
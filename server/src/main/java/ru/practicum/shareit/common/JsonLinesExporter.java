@@ -0,0 +1,96 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@Component
+public class JsonLinesExporter {
+    private static final int LINE_SEPARATOR = '\n';
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public JsonLinesExporter(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${shareit.export.fetch-size}") int fetchSize) {
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public <T> StreamingResponseBody export(RowMapper<T> rowMapper, SqlParameterSource parameters, String query) {
+        // PostgreSQL only honours the fetch size with auto-commit off, hence the read-only transaction
+        // the body is written on an async thread, so the routing pin has to travel with it
+        boolean pinnedToPrimary = ReadWriteRoutingDataSource.isPinnedToPrimary();
+        return outputStream -> {
+            if (pinnedToPrimary) {
+                ReadWriteRoutingDataSource.pinToPrimary();
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    LineWriter<T> lineWriter = new LineWriter<>(outputStream, rowMapper);
+                    jdbcTemplate.query(query, parameters, lineWriter);
+                    lineWriter.flush();
+                });
+            } finally {
+                ReadWriteRoutingDataSource.releasePin();
+            }
+        };
+    }
+
+    private class LineWriter<T> implements RowCallbackHandler {
+        private final OutputStream outputStream;
+        private final RowMapper<T> rowMapper;
+        private int rowNum;
+
+        LineWriter(OutputStream outputStream, RowMapper<T> rowMapper) {
+            this.outputStream = outputStream;
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            T row = rowMapper.mapRow(resultSet, rowNum++);
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(row));
+                outputStream.write(LINE_SEPARATOR);
+                if (rowNum % fetchSize == 0) {
+                    outputStream.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void flush() {
+            try {
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.function.BiFunction;
+
+public final class KeysetCursor {
+    private static final String SEPARATOR = "_";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(LocalDateTime position, Integer id) {
+        String value = position + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static <T> T decode(String cursor, BiFunction<LocalDateTime, Integer, T> factory) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = value.lastIndexOf(SEPARATOR);
+            return factory.apply(
+                    LocalDateTime.parse(value.substring(0, separatorIndex)),
+                    Integer.parseInt(value.substring(separatorIndex + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException exception) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final String USER_ID_REQUEST_HEADER = "X-Sharer-User-Id";
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration pinWindow, long maximumWriters) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(pinWindow)
+                .maximumSize(maximumWriters)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String userId = request.getHeader(USER_ID_REQUEST_HEADER);
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write || (userId != null && recentWriters.getIfPresent(userId) != null)) {
+            ReadWriteRoutingDataSource.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.releasePin();
+            // the window starts once the write is committed, replica lag is measured from there
+            if (userId != null && write) {
+                recentWriters.put(userId, true);
+            }
+        }
+    }
+}
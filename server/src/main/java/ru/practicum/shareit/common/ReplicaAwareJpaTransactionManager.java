@@ -0,0 +1,24 @@
+package ru.practicum.shareit.common;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReplicaAwareJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        // StaleReplicaPutGuard may have switched the session to GET, a pooled or shared session must not keep it
+        if (TransactionSynchronizationManager.hasResource(obtainEntityManagerFactory())) {
+            currentSession().setCacheMode(CacheMode.NORMAL);
+        }
+        super.doCleanupAfterCompletion(transaction);
+    }
+
+    private Session currentSession() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        return holder.getEntityManager().unwrap(Session.class);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.common;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class ReturningUpdateTemplate {
+    private static final String H2_PRODUCT_NAME = "H2";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile Boolean deltaTableSyntax;
+
+    public <T> Optional<T> update(String update, String returningColumns, MapSqlParameterSource parameters, RowMapper<T> rowMapper) {
+        // H2 has no RETURNING clause, its data change delta table gives the same single round trip
+        String sql = usesDeltaTableSyntax()
+                ? "select " + returningColumns + " from final table (" + update + ")"
+                : update + " returning " + returningColumns;
+        List<T> rows = jdbcTemplate.query(sql, parameters, rowMapper);
+        return rows.stream().findFirst();
+    }
+
+    private boolean usesDeltaTableSyntax() {
+        if (deltaTableSyntax == null) {
+            deltaTableSyntax = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) connection ->
+                    H2_PRODUCT_NAME.equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return deltaTableSyntax;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.CacheMode;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PreLoadEvent;
+import org.hibernate.event.spi.PreLoadEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+
+public class StaleReplicaPutGuard implements PreLoadEventListener {
+
+    private final Cache<List<Object>, Boolean> recentlyEvicted;
+
+    public StaleReplicaPutGuard(Duration replicaLag) {
+        recentlyEvicted = Caffeine.newBuilder()
+                .expireAfterWrite(replicaLag)
+                .build();
+    }
+
+    public static void register(EntityManagerFactory entityManagerFactory, StaleReplicaPutGuard guard) {
+        listeners(entityManagerFactory).appendListeners(EventType.PRE_LOAD, guard);
+    }
+
+    public static void recordEviction(EntityManagerFactory entityManagerFactory, Class<?> entityClass, Object id) {
+        // without a replica no guard is registered and every read may fill the cache
+        for (PreLoadEventListener listener : listeners(entityManagerFactory).getEventListenerGroup(EventType.PRE_LOAD).listeners()) {
+            if (listener instanceof StaleReplicaPutGuard)
+                ((StaleReplicaPutGuard) listener).recentlyEvicted.put(List.of(entityClass, id), true);
+        }
+    }
+
+    @Override
+    public void onPreLoad(PreLoadEvent event) {
+        if (!ReadWriteRoutingDataSource.routesToReplica(TransactionSynchronizationManager.isCurrentTransactionReadOnly()))
+            return;
+        // only a row evicted within the lag window can come back older than the primary, everything else is cached as usual
+        if (recentlyEvicted.getIfPresent(List.of(event.getPersister().getMappedClass(), event.getId())) != null)
+            event.getSession().setCacheMode(CacheMode.GET);
+    }
+
+    private static EventListenerRegistry listeners(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.common;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class TaggedBody<T> {
+    private final T body;
+    private final String tag;
+}
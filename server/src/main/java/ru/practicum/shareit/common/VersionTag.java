@@ -0,0 +1,81 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.exception.InvalidVersionTagException;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public final class VersionTag {
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String QUOTE = "\"";
+    private static final String PART_SEPARATOR = "-";
+    private static final String TAG_LIST_SEPARATOR = ",";
+    private static final String MISSING_PART = "0";
+
+    private VersionTag() {
+    }
+
+    public static String of(Integer version) {
+        return QUOTE + version + QUOTE;
+    }
+
+    public static String compose(Object... parts) {
+        return Arrays.stream(parts)
+                .map(part -> Objects.toString(part, MISSING_PART))
+                .collect(Collectors.joining(PART_SEPARATOR, QUOTE, QUOTE));
+    }
+
+    public static <T> ResponseEntity<T> ok(T body, Integer version) {
+        return ok(body, version != null ? of(version) : null);
+    }
+
+    public static <T> ResponseEntity<T> ok(T body, String tag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (tag != null)
+            response.eTag(tag);
+        return response.body(body);
+    }
+
+    public static <T> ResponseEntity<T> ok(TaggedBody<T> taggedBody) {
+        return ok(taggedBody.getBody(), taggedBody.getTag());
+    }
+
+    public static <T> ResponseEntity<T> notModified(String tag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+    }
+
+    public static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null || tag == null)
+            return false;
+        String opaqueTag = stripWeakPrefix(tag);
+        for (String candidate : ifNoneMatch.split(TAG_LIST_SEPARATOR)) {
+            String value = candidate.trim();
+            if (ANY.equals(value) || stripWeakPrefix(value).equals(opaqueTag))
+                return true;
+        }
+        return false;
+    }
+
+    public static Integer parse(String tag) {
+        if (tag == null || tag.isBlank() || ANY.equals(tag.trim()))
+            return null;
+        String value = stripWeakPrefix(tag.trim());
+        if (value.length() < 2 || !value.startsWith(QUOTE) || !value.endsWith(QUOTE))
+            throw new InvalidVersionTagException(tag);
+        String opaqueTag = value.substring(1, value.length() - 1);
+        int separator = opaqueTag.indexOf(PART_SEPARATOR);
+        try {
+            return Integer.valueOf(separator < 0 ? opaqueTag : opaqueTag.substring(0, separator));
+        } catch (NumberFormatException exception) {
+            throw new InvalidVersionTagException(tag);
+        }
+    }
+
+    private static String stripWeakPrefix(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
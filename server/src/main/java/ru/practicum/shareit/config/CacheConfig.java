@@ -0,0 +1,36 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.item.cache.ItemViewExpiry;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ITEM_VIEWS_CACHE = "itemViews";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${shareit.cache.item-views.maximum-size}") long itemViewsMaximumSize,
+                                     @Value("${shareit.cache.item-views.ttl}") Duration itemViewsTtl) {
+        // users are served by the second-level cache region, only the assembled item views live here
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(ITEM_VIEWS_CACHE, Caffeine.newBuilder()
+                .maximumSize(itemViewsMaximumSize)
+                .expireAfter(new ItemViewExpiry(itemViewsTtl))
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
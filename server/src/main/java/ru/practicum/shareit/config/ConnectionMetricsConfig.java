@@ -0,0 +1,48 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.common.ConnectionHoldTimeDataSource;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Configuration
+public class ConnectionMetricsConfig {
+
+    @Bean
+    public static ConnectionHoldTimePostProcessor connectionHoldTimePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ConnectionHoldTimePostProcessor(meterRegistry);
+    }
+
+    static class ConnectionHoldTimePostProcessor implements BeanPostProcessor, SmartInitializingSingleton {
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final List<ConnectionHoldTimeDataSource> dataSources = new CopyOnWriteArrayList<>();
+
+        ConnectionHoldTimePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            // wraps the physical pools only, so the routing proxy in front of them is not counted twice
+            if (bean instanceof HikariDataSource) {
+                ConnectionHoldTimeDataSource dataSource = new ConnectionHoldTimeDataSource((HikariDataSource) bean, beanName);
+                dataSources.add(dataSource);
+                return dataSource;
+            }
+            return bean;
+        }
+
+        @Override
+        public void afterSingletonsInstantiated() {
+            // the registry is resolved only once every singleton exists, the pools are created while it may still be in creation
+            meterRegistry.ifAvailable(registry -> dataSources.forEach(dataSource -> dataSource.bindTo(registry)));
+        }
+    }
+}
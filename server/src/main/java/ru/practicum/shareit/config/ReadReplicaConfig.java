@@ -0,0 +1,86 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.common.ReadWriteRoutingDataSource;
+import ru.practicum.shareit.common.ReadYourWritesFilter;
+import ru.practicum.shareit.common.ReplicaAwareJpaTransactionManager;
+import ru.practicum.shareit.common.StaleReplicaPutGuard;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "shareit.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    public static final String REPLICA_POOL_NAME = "replica";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("shareit.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${shareit.datasource.replica.url}") String url,
+                                              @Value("${shareit.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${shareit.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName(REPLICA_POOL_NAME);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        // the physical connection is fetched on the first statement, when the transaction's read-only flag is already set
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new ReplicaAwareJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${shareit.datasource.replica.pin-window}") Duration pinWindow,
+                                                     @Value("${shareit.datasource.replica.pinned-users}") long pinnedUsers) {
+        return new ReadYourWritesFilter(pinWindow, pinnedUsers);
+    }
+
+    @Bean
+    public StaleReplicaPutGuard staleReplicaPutGuard(EntityManagerFactory entityManagerFactory,
+                                                     @Value("${shareit.datasource.replica.pin-window}") Duration pinWindow) {
+        // the pin window is how long a replica is allowed to lag, so it is also how long an eviction stays suspicious
+        StaleReplicaPutGuard guard = new StaleReplicaPutGuard(pinWindow);
+        StaleReplicaPutGuard.register(entityManagerFactory, guard);
+        return guard;
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String USERS_REGION = "entity.users";
+    public static final String ITEMS_REGION = "entity.items";
+    public static final String REQUESTS_REGION = "entity.requests";
+
+    private static final String CACHE_MANAGER_URI_PREFIX = "shareit:entity-cache:";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(@Value("${shareit.cache.entities.users.maximum-size}") long usersMaximumSize,
+                                           @Value("${shareit.cache.entities.users.ttl}") Duration usersTtl,
+                                           @Value("${shareit.cache.entities.items.maximum-size}") long itemsMaximumSize,
+                                           @Value("${shareit.cache.entities.items.ttl}") Duration itemsTtl,
+                                           @Value("${shareit.cache.entities.requests.maximum-size}") long requestsMaximumSize,
+                                           @Value("${shareit.cache.entities.requests.ttl}") Duration requestsTtl) {
+        // a manager per application context, Hibernate closes it together with the session factory
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create(CACHE_MANAGER_URI_PREFIX + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(USERS_REGION, regionConfiguration(usersMaximumSize, usersTtl));
+        cacheManager.createCache(ITEMS_REGION, regionConfiguration(itemsMaximumSize, itemsTtl));
+        cacheManager.createCache(REQUESTS_REGION, regionConfiguration(requestsMaximumSize, requestsTtl));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager entityCacheManager) {
+        // application.properties keeps the cache off so JPA test slices do not pick the JCache factory up implicitly
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", entityCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        // hibernate-micrometer only counts region requests and puts, size and evictions are known to the cache itself
+        return registry -> entityCacheManager.getCacheNames().forEach(region -> CaffeineCacheMetrics.monitor(registry,
+                entityCacheManager.getCache(region).unwrap(com.github.benmanes.caffeine.cache.Cache.class), region));
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(long maximumSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        // Hibernate already stores disassembled state, copying it again on every read buys nothing
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class InvalidVersionTagException extends RuntimeException {
+    public InvalidVersionTagException(String tag) {
+        super(String.format("Invalid entity tag: %s", tag));
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message, int id) {
+        super(String.format(message, id));
+    }
+}
@@ -2,13 +2,21 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.common.VersionTag;
+import ru.practicum.shareit.item.cache.ItemViewVersion;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -21,11 +29,15 @@ public class ItemController {
     private static final String LOGGER_GET_ITEMS_BY_OWNER_MESSAGE = "Returning items by owner";
     private static final String LOGGER_GET_ITEMS_BY_TEXT_MESSAGE = "Returning items by text: {}";
     private static final String LOGGER_ADD_ITEM_MESSAGE = "Adding item";
+    private static final String LOGGER_ADD_ITEMS_MESSAGE = "Adding {} items";
     private static final String LOGGER_ADD_COMMENT_MESSAGE = "Adding comment";
+    private static final String LOGGER_EXPORT_ITEMS_BY_OWNER_MESSAGE = "Exporting items by owner: {}";
+    private static final String LOGGER_GET_COMMENTS_MESSAGE = "Returning comments of item with id: {}";
     private static final String LOGGER_GET_ITEM_BY_ID_MESSAGE = "Getting item with id: {}";
     private static final String LOGGER_UPDATE_ITEM_MESSAGE = "Updating item with id: {}";
 
     private static final String USER_ID_REQUEST_HEADER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR_RESPONSE_HEADER = "X-Next-Cursor";
     private final ItemService itemService;
 
     @PostMapping
@@ -34,18 +46,41 @@ public class ItemController {
         return itemService.add(userId, itemRequestDto);
     }
 
+    @PostMapping("/batch")
+    public List<ItemRequestDto> addItems(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @RequestBody List<ItemRequestDto> items) {
+        log.info(LOGGER_ADD_ITEMS_MESSAGE, items.size());
+        return itemService.addAll(userId, items);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentResponseDto addComment(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable int itemId, @RequestBody CommentRequestDto commentRequestDto) {
         log.info(LOGGER_ADD_COMMENT_MESSAGE);
         return itemService.addComment(userId, itemId, commentRequestDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentResponseDto>> getComments(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable int itemId, @RequestParam(defaultValue = "20") int size, @RequestParam(required = false) String cursor) {
+        log.info(LOGGER_GET_COMMENTS_MESSAGE, itemId);
+        List<CommentResponseDto> comments = itemService.getComments(itemId, cursor == null ? null : CommentCursor.decode(cursor), size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!comments.isEmpty() && comments.size() == size) {
+            response.header(NEXT_CURSOR_RESPONSE_HEADER, CommentCursor.of(comments.get(comments.size() - 1)).encode());
+        }
+        return response.body(comments);
+    }
+
     @GetMapping
     public List<ItemResponseDto> getAllByOwner(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @RequestParam(defaultValue = "0") int from, @RequestParam(defaultValue = "20") int size) {
         log.info(LOGGER_GET_ITEMS_BY_OWNER_MESSAGE);
         return itemService.getAllByOwner(userId, from, size);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAllByOwner(@RequestHeader(USER_ID_REQUEST_HEADER) int userId) {
+        log.info(LOGGER_EXPORT_ITEMS_BY_OWNER_MESSAGE, userId);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(itemService.exportAllByOwner(userId));
+    }
+
     @GetMapping("/search")
     public List<ItemRequestDto> getAllByText(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @RequestParam String text, @RequestParam(defaultValue = "0") int from, @RequestParam(defaultValue = "20") int size) {
         log.info(LOGGER_GET_ITEMS_BY_TEXT_MESSAGE, text);
@@ -53,15 +88,21 @@ public class ItemController {
     }
 
     @GetMapping("/{id}")
-    public ItemResponseDto getItem(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable("id") int itemId) {
+    public ResponseEntity<ItemResponseDto> getItem(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable("id") int itemId, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info(LOGGER_GET_ITEM_BY_ID_MESSAGE, itemId);
-        return itemService.getById(userId, itemId);
+        // the version read for the tag check is handed on, so a conditional GET reads it once
+        ItemViewVersion version = itemService.getViewVersion(itemId);
+        String tag = version.tagFor(userId, LocalDateTime.now());
+        if (VersionTag.matches(ifNoneMatch, tag))
+            return VersionTag.notModified(tag);
+        return VersionTag.ok(itemService.getTaggedById(userId, itemId, version));
     }
 
     @PatchMapping("/{id}")
-    public ItemRequestDto updateItem(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable("id") int itemId, @RequestBody ItemRequestDto itemRequestDto) {
+    public ResponseEntity<ItemRequestDto> updateItem(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable("id") int itemId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, @RequestBody ItemRequestDto itemRequestDto) {
         log.info(LOGGER_UPDATE_ITEM_MESSAGE, itemId);
-        return itemService.update(userId, itemId, itemRequestDto);
+        ItemRequestDto item = itemService.update(userId, itemId, itemRequestDto, VersionTag.parse(ifMatch));
+        return VersionTag.ok(item, item.getVersion());
     }
 
 }
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+@Getter
+@RequiredArgsConstructor
+public class CachedItemView {
+    private final int ownerId;
+    private final ItemResponseDto view;
+    private final LocalDateTime expiresAt;
+    private final ItemViewVersion version;
+
+    public ItemResponseDto viewFor(int userId) {
+        ItemResponseDto.ItemResponseDtoBuilder builder = ItemResponseDto.builder()
+                .id(view.getId())
+                .name(view.getName())
+                .description(view.getDescription())
+                .available(view.getAvailable())
+                .request(view.getRequest())
+                .comments(new ArrayList<>(view.getComments()))
+                .commentCount(view.getCommentCount())
+                .version(view.getVersion());
+        if (ownerId == userId) {
+            builder.lastBooking(view.getLastBooking());
+            builder.nextBooking(view.getNextBooking());
+        }
+        return builder.build();
+    }
+}
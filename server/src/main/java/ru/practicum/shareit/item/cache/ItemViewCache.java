@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.user.event.UserRemovedEvent;
+
+import static ru.practicum.shareit.config.CacheConfig.ITEM_VIEWS_CACHE;
+
+@Component
+@RequiredArgsConstructor
+public class ItemViewCache {
+
+    private final CacheManager cacheManager;
+
+    public CachedItemView get(int itemId) {
+        return cacheManager.getCache(ITEM_VIEWS_CACHE).get(itemId, CachedItemView.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void put(int itemId, CachedItemView itemView) {
+        // written straight into the native map, so a reader that loaded an older row (e.g. from a lagging replica)
+        // cannot replace a newer entry
+        Cache<Object, Object> nativeCache = (Cache<Object, Object>) cacheManager.getCache(ITEM_VIEWS_CACHE).getNativeCache();
+        nativeCache.asMap().compute(itemId, (key, cached) -> cached instanceof CachedItemView
+                && ((CachedItemView) cached).getVersion() != null
+                && ((CachedItemView) cached).getVersion().isNewerThan(itemView.getVersion()) ? cached : itemView);
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        cacheManager.getCache(ITEM_VIEWS_CACHE).evict(event.getItemId());
+    }
+
+    @EventListener
+    public void onUserRemoved(UserRemovedEvent event) {
+        cacheManager.getCache(ITEM_VIEWS_CACHE).clear();
+    }
+}
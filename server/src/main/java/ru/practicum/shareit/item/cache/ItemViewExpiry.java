@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class ItemViewExpiry implements Expiry<Object, Object> {
+
+    private final Duration ttl;
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        if (!(value instanceof CachedItemView) || ((CachedItemView) value).getExpiresAt() == null)
+            return ttl.toNanos();
+
+        Duration untilNextBooking = Duration.between(LocalDateTime.now(), ((CachedItemView) value).getExpiresAt());
+        if (untilNextBooking.isNegative())
+            return 0;
+        return Math.min(ttl.toNanos(), untilNextBooking.toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
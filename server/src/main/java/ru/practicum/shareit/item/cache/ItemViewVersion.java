@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.Value;
+import ru.practicum.shareit.common.VersionTag;
+import ru.practicum.shareit.item.dto.ItemVersionView;
+
+import java.time.LocalDateTime;
+
+@Value
+public class ItemViewVersion {
+    int ownerId;
+    int version;
+    int commentsVersion;
+    Integer lastBookingId;
+    Integer nextBookingId;
+    LocalDateTime nextBookingStart;
+
+    public static ItemViewVersion of(ItemVersionView view) {
+        return new ItemViewVersion(view.getOwnerId(), view.getVersion(), view.getCommentsVersion(),
+                view.getLastBookingId(), view.getNextBookingId(), view.getNextBookingStart());
+    }
+
+    public String tagFor(int userId, LocalDateTime now) {
+        if (ownerId != userId)
+            return VersionTag.compose(version, commentsVersion);
+        Integer lastId = lastBookingId;
+        Integer nextId = nextBookingId;
+        if (nextId != null && !nextBookingStart.isAfter(now)) {
+            lastId = nextId;
+            nextId = null;
+        }
+        return VersionTag.compose(version, commentsVersion, lastId, nextId);
+    }
+
+    public boolean isNewerThan(ItemViewVersion other) {
+        return other == null || version > other.version
+                || version == other.version && commentsVersion > other.commentsVersion;
+    }
+}
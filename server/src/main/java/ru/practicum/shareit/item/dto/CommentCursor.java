@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.common.KeysetCursor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class CommentCursor {
+    private LocalDateTime created;
+    private Integer id;
+
+    public static CommentCursor of(CommentResponseDto comment) {
+        return new CommentCursor(comment.getCreated(), comment.getId());
+    }
+
+    public static CommentCursor decode(String cursor) {
+        return KeysetCursor.decode(cursor, CommentCursor::new);
+    }
+
+    public String encode() {
+        return KeysetCursor.encode(created, id);
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum.shareit.item.dto;
+
+public interface CommentPreviewView extends CommentView {
+    Long getItemCommentCount();
+}
@@ -17,4 +17,5 @@ public class ItemRequestDto {
 
     private Boolean available;
     private Integer requestId;
+    private Integer version;
 }
\ No newline at end of file
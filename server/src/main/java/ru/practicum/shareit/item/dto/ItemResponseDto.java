@@ -5,7 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 
-import java.util.Set;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -22,5 +22,7 @@ public class ItemResponseDto {
     private BookingItemDto lastBooking;
     private BookingItemDto nextBooking;
 
-    private Set<CommentResponseDto> comments;
+    private List<CommentResponseDto> comments;
+    private Long commentCount;
+    private Integer version;
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+public interface ItemVersionView {
+    Integer getVersion();
+
+    Integer getOwnerId();
+
+    Integer getLastBookingId();
+
+    Integer getNextBookingId();
+
+    LocalDateTime getNextBookingStart();
+
+    Integer getCommentsVersion();
+}
@@ -2,11 +2,15 @@ package ru.practicum.shareit.item.mapper;
 
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
 @Component
 public class ItemMapper {
     public ItemRequestDto mapToItemDto(Item item) {
@@ -16,6 +20,18 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .version(item.getVersion())
+                .build();
+    }
+
+    public ItemRequestDto mapRowToItemDto(ResultSet resultSet, int rowNum) throws SQLException {
+        return ItemRequestDto.builder()
+                .id(resultSet.getInt("item_id"))
+                .name(resultSet.getString("name"))
+                .description(resultSet.getString("description"))
+                .available(resultSet.getBoolean("available"))
+                .requestId(resultSet.getObject("request_id", Integer.class))
+                .version(resultSet.getInt("version"))
                 .build();
     }
 
@@ -26,6 +42,7 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .request(item.getRequest() != null ? item.getRequest().getId() : null)
+                .version(item.getVersion())
                 .build();
     }
 
@@ -45,4 +62,12 @@ public class ItemMapper {
                 .created(comment.getCreated()).build();
     }
 
+    public CommentResponseDto mapToCommentView(CommentView comment) {
+        return CommentResponseDto.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .created(comment.getCreated()).build();
+    }
+
 }
@@ -1,14 +1,40 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.CommentPreviewView;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
-import java.util.Set;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
+    String COMMENT_VIEW_SELECT = "select c.comment_id as id, c.text as text, u.name as authorName, c.created as created, " +
+            "c.item_id as itemId from comments as c join users as u on u.user_id = c.author_id ";
 
-    Set<Comment> findAllByItem_Id(int itemId);
+    @Query(value = "select c.comment_id as id, c.text as text, u.name as authorName, c.created as created, " +
+            "c.item_id as itemId, c.item_comment_count as itemCommentCount " +
+            "from (select cm.comment_id, cm.text, cm.item_id, cm.author_id, cm.created, " +
+            "row_number() over (partition by cm.item_id ORDER BY cm.created DESC, cm.comment_id DESC) as item_position, " +
+            "count(*) over (partition by cm.item_id) as item_comment_count " +
+            "from comments as cm where cm.item_id IN (:itemIds)) as c " +
+            "join users as u on u.user_id = c.author_id " +
+            "where c.item_position <= :previewSize " +
+            "ORDER BY c.item_id, c.item_position ", nativeQuery = true)
+    List<CommentPreviewView> findNewestByItemIds(@Param("itemIds") Collection<Integer> itemIds, @Param("previewSize") int previewSize);
 
+    @Query(value = COMMENT_VIEW_SELECT +
+            "where c.item_id = :itemId " +
+            "ORDER BY c.created DESC, c.comment_id DESC LIMIT :size ", nativeQuery = true)
+    List<CommentView> findNewestByItemId(@Param("itemId") int itemId, @Param("size") int size);
 
+    @Query(value = COMMENT_VIEW_SELECT +
+            "where c.item_id = :itemId and (c.created < :cursorCreated or (c.created = :cursorCreated and c.comment_id < :cursorId)) " +
+            "ORDER BY c.created DESC, c.comment_id DESC LIMIT :size ", nativeQuery = true)
+    List<CommentView> findOlderByItemId(@Param("itemId") int itemId, @Param("cursorCreated") LocalDateTime cursorCreated,
+                                        @Param("cursorId") int cursorId, @Param("size") int size);
 }
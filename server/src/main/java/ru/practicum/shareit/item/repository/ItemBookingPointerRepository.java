@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.repository;
+
+import java.time.LocalDateTime;
+
+public interface ItemBookingPointerRepository {
+
+    int refreshBookingPointers(int itemId, LocalDateTime now);
+
+    int rollStartedBookingPointers(LocalDateTime now);
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+public class ItemBookingPointerRepositoryImpl implements ItemBookingPointerRepository {
+    // pointer columns are not mapped on Item, so the cached items region stays valid,
+    // the last booking falls back to the archive rather than to the old pointer, which may name a deleted booking
+    private static final String UPDATE_BOOKING_POINTERS = "update items set " +
+            "last_booking_id = coalesce((select bk.booking_id from bookings as bk " +
+            "where bk.item_id = items.item_id and bk.status = 'APPROVED' and bk.start_date < :now " +
+            "ORDER BY bk.start_date DESC, bk.booking_id DESC LIMIT 1), " +
+            "(select bk.booking_id from bookings_archive as bk " +
+            "where bk.item_id = items.item_id and bk.status = 'APPROVED' " +
+            "ORDER BY bk.start_date DESC, bk.booking_id DESC LIMIT 1)), " +
+            "(next_booking_id, next_booking_start) = (select bk.booking_id, bk.start_date from bookings as bk " +
+            "where bk.item_id = items.item_id and bk.status = 'APPROVED' and bk.start_date >= :now " +
+            "ORDER BY bk.start_date, bk.booking_id LIMIT 1) ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public ItemBookingPointerRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int refreshBookingPointers(int itemId, LocalDateTime now) {
+        // the booking whose status just changed may still sit unflushed in the persistence context
+        entityManager.flush();
+        return jdbcTemplate.update(UPDATE_BOOKING_POINTERS + "where item_id = :itemId ",
+                new MapSqlParameterSource("itemId", itemId).addValue("now", now));
+    }
+
+    @Override
+    public int rollStartedBookingPointers(LocalDateTime now) {
+        return jdbcTemplate.update(UPDATE_BOOKING_POINTERS + "where next_booking_start < :now ",
+                new MapSqlParameterSource("now", now));
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.repository;
+
+public interface ItemCommentsVersionRepository {
+
+    int incrementCommentsVersion(int itemId);
+
+    int incrementCommentsVersionByAuthor(int authorId);
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class ItemCommentsVersionRepositoryImpl implements ItemCommentsVersionRepository {
+    // comments_version is not mapped on Item, so the cached items region stays valid
+    private static final String INCREMENT_COMMENTS_VERSION = "update items set comments_version = comments_version + 1 ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ItemCommentsVersionRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int incrementCommentsVersion(int itemId) {
+        return jdbcTemplate.update(INCREMENT_COMMENTS_VERSION + "where item_id = :itemId ",
+                new MapSqlParameterSource("itemId", itemId));
+    }
+
+    @Override
+    public int incrementCommentsVersionByAuthor(int authorId) {
+        // the author name is part of every comment shown in the item view
+        return jdbcTemplate.update(INCREMENT_COMMENTS_VERSION +
+                        "where item_id in (select c.item_id from comments as c where c.author_id = :authorId) ",
+                new MapSqlParameterSource("authorId", authorId));
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Optional;
+
+public interface ItemPatchRepository {
+
+    Optional<Item> patch(int itemId, int ownerId, String name, String description, Boolean available, Integer expectedVersion);
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.shareit.common.EntityCacheEviction;
+import ru.practicum.shareit.common.ReturningUpdateTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class ItemPatchRepositoryImpl implements ItemPatchRepository {
+    private static final String RETURNING_COLUMNS = "item_id, name, description, available, user_id, request_id, version";
+
+    private final ReturningUpdateTemplate returningUpdateTemplate;
+    private final EntityManager entityManager;
+
+    public ItemPatchRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.returningUpdateTemplate = new ReturningUpdateTemplate(jdbcTemplate);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<Item> patch(int itemId, int ownerId, String name, String description, Boolean available, Integer expectedVersion) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("itemId", itemId)
+                .addValue("ownerId", ownerId);
+        List<String> assignments = new ArrayList<>();
+        if (name != null) {
+            assignments.add("name = :name");
+            parameters.addValue("name", name);
+        }
+        if (description != null) {
+            assignments.add("description = :description");
+            parameters.addValue("description", description);
+        }
+        if (available != null) {
+            assignments.add("available = :available");
+            parameters.addValue("available", available);
+        }
+        assignments.add(assignments.isEmpty() ? "version = version" : "version = version + 1");
+
+        String update = "update items set " + String.join(", ", assignments) + " where item_id = :itemId and user_id = :ownerId";
+        if (expectedVersion != null) {
+            update += " and version = :expectedVersion";
+            parameters.addValue("expectedVersion", expectedVersion);
+        }
+        Optional<Item> patched = returningUpdateTemplate.update(update, RETURNING_COLUMNS, parameters, itemRowMapper());
+        patched.ifPresent(item -> EntityCacheEviction.evict(entityManager, Item.class, itemId));
+        return patched;
+    }
+
+    private RowMapper<Item> itemRowMapper() {
+        return (resultSet, rowNum) -> {
+            Integer requestId = resultSet.getObject("request_id", Integer.class);
+            return Item.builder()
+                    .id(resultSet.getInt("item_id"))
+                    .name(resultSet.getString("name"))
+                    .description(resultSet.getString("description"))
+                    .available(resultSet.getBoolean("available"))
+                    .owner(entityManager.getReference(User.class, resultSet.getInt("user_id")))
+                    .request(requestId != null ? entityManager.getReference(ItemRequest.class, requestId) : null)
+                    .version(resultSet.getInt("version"))
+                    .build();
+        };
+    }
+}
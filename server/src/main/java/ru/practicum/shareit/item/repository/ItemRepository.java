@@ -1,16 +1,27 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemVersionView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Component
-public interface ItemRepository extends JpaRepository<Item, Integer> {
+public interface ItemRepository extends JpaRepository<Item, Integer>, ItemPatchRepository, ItemBookingPointerRepository,
+        ItemCommentsVersionRepository {
+
+    String EXPORT_BY_OWNER = "select i.item_id, i.name, i.description, i.available, i.request_id, i.version " +
+            "from items as i where i.user_id = :userId ORDER BY i.item_id ";
 
     @Query(
             value = "select * " +
@@ -20,17 +31,41 @@ public interface ItemRepository extends JpaRepository<Item, Integer> {
             nativeQuery = true)
     List<Item> findAllByOwnerFromAndLimit(@Param("userId") int userId, @Param("from") int from, @Param("size") int size);
 
+    @Query("select i.id from Item i left join i.request r where i.owner.id = :userId or r.requestor.id = :userId")
+    List<Integer> findIdsRemovedWithUser(@Param("userId") int userId);
+
+    // a pointer only ever names a booking of its own item, so the user's bookings lead to the items to repoint
+    @Query(value = "select bk.item_id from bookings as bk join items as i on i.item_id = bk.item_id " +
+            "where bk.booker_id = :userId and bk.booking_id in (i.last_booking_id, i.next_booking_id) " +
+            "UNION " +
+            "select bk.item_id from bookings_archive as bk join items as i on i.item_id = bk.item_id " +
+            "where bk.booker_id = :userId and bk.booking_id = i.last_booking_id ", nativeQuery = true)
+    List<Integer> findIdsPointingToBookingsOf(@Param("userId") int userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :itemId")
+    Optional<Item> findByIdForUpdate(@Param("itemId") int itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :itemIds order by i.id")
+    List<Item> findAllByIdForUpdate(@Param("itemIds") Collection<Integer> itemIds);
+
+    @Query(value = "select i.version as version, i.user_id as ownerId, i.last_booking_id as lastBookingId, " +
+            "i.next_booking_id as nextBookingId, i.next_booking_start as nextBookingStart, " +
+            "i.comments_version as commentsVersion " +
+            "from items as i where i.item_id = :itemId ", nativeQuery = true)
+    Optional<ItemVersionView> findVersionViewById(@Param("itemId") int itemId);
+
     List<Item> findAllByOwner(User owner);
 
     List<Item> findAllByRequest_Id(int requestId);
 
-    @Query(
-            value = "select * " +
-                    "from items " +
-                    "where (lower(name) ilike %:text% " +
-                    "OR lower(description) ilike %:text%) " +
-                    "AND available=true " +
-                    "LIMIT :size OFFSET :from",
-            nativeQuery = true)
-    List<Item> findAllByText(@Param("text") String text, @Param("from") int from, @Param("size") int size);
+    List<Item> findAllByRequest_IdIn(Collection<Integer> requestIds);
+
+    default Map<Integer, List<Item>> findAllGroupedByRequestIds(Collection<Integer> requestIds) {
+        return findAllByRequest_IdIn(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+    }
+
 }
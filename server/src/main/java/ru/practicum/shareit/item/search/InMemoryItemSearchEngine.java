@@ -0,0 +1,137 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.event.UserRemovedEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ItemRepository itemRepository;
+
+    private final NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    private final Map<Integer, Map<String, Integer>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Item> items = itemRepository.findAll();
+        items.forEach(this::apply);
+        log.info("Item search index built for {} items", items.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(item);
+                }
+            });
+        } else {
+            apply(item);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRemoved(UserRemovedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getRemovedItemIds().forEach(this::removeDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Integer> search(String text, int from, int size) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        if (tokens.isEmpty())
+            return new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = null;
+            for (String token : tokens) {
+                Map<Integer, Integer> tokenScores = new HashMap<>();
+                postings.subMap(token, true, token + Character.MAX_VALUE, true)
+                        .values()
+                        .forEach(posting -> posting.forEach((itemId, weight) -> tokenScores.merge(itemId, weight, Integer::sum)));
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((itemId, score) -> score + tokenScores.get(itemId));
+                }
+            }
+            return scores.entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .skip(from)
+                    .limit(size)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Item item) {
+        Map<String, Integer> terms = new HashMap<>();
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            SearchTokenizer.tokenize(item.getName()).forEach(token -> terms.merge(token, NAME_WEIGHT, Integer::sum));
+            SearchTokenizer.tokenize(item.getDescription()).forEach(token -> terms.merge(token, DESCRIPTION_WEIGHT, Integer::sum));
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(item.getId());
+            if (!terms.isEmpty()) {
+                documents.put(item.getId(), terms);
+                terms.forEach((token, weight) -> postings.computeIfAbsent(token, key -> new HashMap<>()).put(item.getId(), weight));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(int itemId) {
+        Map<String, Integer> previousTerms = documents.remove(itemId);
+        if (previousTerms == null)
+            return;
+        previousTerms.keySet().forEach(token -> {
+            Map<Integer, Integer> posting = postings.get(token);
+            posting.remove(itemId);
+            if (posting.isEmpty())
+                postings.remove(token);
+        });
+    }
+}
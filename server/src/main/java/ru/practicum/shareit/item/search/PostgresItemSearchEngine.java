@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+
+    private static final String SEARCH_DOCUMENT = "to_tsvector('simple', i.name || ' ' || coalesce(i.description, ''))";
+    private static final String SEARCH_QUERY = "select i.item_id " +
+            "from items as i " +
+            "where i.available = true " +
+            "AND " + SEARCH_DOCUMENT + " @@ to_tsquery('simple', :query) " +
+            "ORDER BY ts_rank(" + SEARCH_DOCUMENT + ", to_tsquery('simple', :query)) DESC, i.item_id " +
+            "LIMIT :size OFFSET :from";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void index(Item item) {
+        // items_search_idx is an expression index, PostgreSQL keeps it in sync on write
+    }
+
+    @Override
+    public List<Integer> search(String text, int from, int size) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        if (tokens.isEmpty())
+            return new ArrayList<>();
+
+        String query = tokens.stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+        return jdbcTemplate.queryForList(SEARCH_QUERY,
+                new MapSqlParameterSource()
+                        .addValue("query", query)
+                        .addValue("from", from)
+                        .addValue("size", size),
+                Integer.class);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingPointerJob {
+
+    private final ItemRepository itemRepository;
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${shareit.items.booking-pointers.roll-delay}")
+    public void rollStartedBookings() {
+        int rolled = itemRepository.rollStartedBookingPointers(LocalDateTime.now());
+        if (rolled > 0)
+            log.debug("Rolled booking pointers of {} items", rolled);
+    }
+}
@@ -1,5 +1,9 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.common.TaggedBody;
+import ru.practicum.shareit.item.cache.ItemViewVersion;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
@@ -14,11 +18,21 @@ public interface ItemService {
 
     List<ItemRequestDto> getAllByText(int userId, String text, int from, int size);
 
+    StreamingResponseBody exportAllByOwner(int ownerId);
+
     ItemResponseDto getById(int userId, int id);
 
+    TaggedBody<ItemResponseDto> getTaggedById(int userId, int id, ItemViewVersion version);
+
+    ItemViewVersion getViewVersion(int id);
+
+    List<CommentResponseDto> getComments(int itemId, CommentCursor cursor, int size);
+
     ItemRequestDto add(int ownerId, ItemRequestDto item);
 
+    List<ItemRequestDto> addAll(int ownerId, List<ItemRequestDto> items);
+
     CommentResponseDto addComment(int userId, int itemId, CommentRequestDto commentRequestDto);
 
-    ItemRequestDto update(int ownerId, int itemId, ItemRequestDto item);
+    ItemRequestDto update(int ownerId, int itemId, ItemRequestDto item, Integer expectedVersion);
 }
@@ -1,23 +1,38 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.JsonLinesExporter;
+import ru.practicum.shareit.common.TaggedBody;
 import ru.practicum.shareit.exception.BookingForCommentNotFoundException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.VersionConflictException;
 import ru.practicum.shareit.exception.WrongOwnerOrBookerException;
+import ru.practicum.shareit.item.cache.CachedItemView;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.cache.ItemViewVersion;
+import ru.practicum.shareit.item.dto.CommentCursor;
+import ru.practicum.shareit.item.dto.CommentPreviewView;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -27,7 +42,12 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.request.service.ItemRequestServiceImpl.ITEM_REQUEST_NOT_FOUND_MESSAGE;
@@ -37,8 +57,11 @@ import static ru.practicum.shareit.user.service.UserServiceImpl.USER_NOT_FOUND_M
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
     public static final String ITEM_NOT_FOUND_MESSAGE = "Item with id %d not found";
+    public static final String ITEM_VERSION_CONFLICT_MESSAGE = "Item with id %d has been modified by another request";
     private static final String WRONG_OWNER_MESSAGE = "You are not an owner ot this item!";
 
+    private static final int COMMENT_PREVIEW_SIZE = 10;
+
     private static final String BOOKING_FOR_COMMENT_NOT_FOUND_EXCEPTION_MESSAGE = " You have not booked item %d to comment";
 
     private final ItemRepository itemRepository;
@@ -46,72 +69,121 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemViewCache itemViewCache;
+    private final ApplicationEventPublisher eventPublisher;
     private final ItemMapper itemMapper;
     private final BookingMapper bookingMapper;
+    private final JsonLinesExporter exporter;
 
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> getAll() {
         return itemRepository.findAll().stream().map(itemMapper::mapToItemDto).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemResponseDto> getAllByOwner(int ownerId, int from, int size) {
         Optional<User> optionalUser = userRepository.findById(ownerId);
         if (optionalUser.isEmpty())
             throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, ownerId);
 
         List<Item> ownerItems = itemRepository.findAllByOwnerFromAndLimit(ownerId, from, size);
+        if (ownerItems.isEmpty())
+            return new ArrayList<>();
+
+        List<Integer> itemIds = ownerItems.stream().map(Item::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> pointedBookings = bookingRepository.findPointedBookingsForItems(itemIds);
+        Map<Integer, Booking> lastBookings = groupLastBookingsByItemId(pointedBookings, now);
+        Map<Integer, Booking> nextBookings = groupNextBookingsByItemId(pointedBookings, now);
+        Map<Integer, List<CommentPreviewView>> comments = commentRepository.findNewestByItemIds(itemIds, COMMENT_PREVIEW_SIZE)
+                .stream()
+                .collect(Collectors.groupingBy(CommentPreviewView::getItemId));
 
-        List<ItemResponseDto> items = ownerItems.stream()
-                .map(this::setBookingDatesToItem).collect(Collectors.toList());
-        items.forEach(item ->
-                item.setComments(commentRepository
-                        .findAllByItem_Id(item.getId())
-                        .stream()
-                        .map(itemMapper::mapToCommentView)
-                        .collect(Collectors.toSet())
-                )
-        );
+        List<ItemResponseDto> items = ownerItems.stream().map(item -> {
+            ItemResponseDto itemView = itemMapper.mapToItemBookingDatesView(item);
+            if (lastBookings.containsKey(item.getId()))
+                itemView.setLastBooking(bookingMapper.mapToBookingItemView(lastBookings.get(item.getId())));
+            if (nextBookings.containsKey(item.getId()))
+                itemView.setNextBooking(bookingMapper.mapToBookingItemView(nextBookings.get(item.getId())));
+            attachCommentPreview(itemView, comments.getOrDefault(item.getId(), new ArrayList<>()));
+            return itemView;
+        }).collect(Collectors.toList());
         return items.stream().sorted(Comparator.comparing(item -> item.getId())).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> getAllByText(int userId, String text, int from, int size) {
         if (text.isEmpty())
             return new ArrayList<>();
 
-        List<Item> itemsByText = itemRepository.findAllByText(text, from, size);
+        List<Integer> itemIds = itemSearchEngine.search(text, from, size);
+        if (itemIds.isEmpty())
+            return new ArrayList<>();
 
-        return itemsByText
+        Map<Integer, Item> itemsById = itemRepository.findAllById(itemIds)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return itemIds
                 .stream()
-                .map(itemMapper::mapToItemDto)
+                .filter(itemsById::containsKey)
+                .map(itemId -> itemMapper.mapToItemDto(itemsById.get(itemId)))
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public StreamingResponseBody exportAllByOwner(int ownerId) {
+        if (userRepository.findById(ownerId).isEmpty())
+            throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, ownerId);
+        return exporter.export(itemMapper::mapRowToItemDto, new MapSqlParameterSource("userId", ownerId),
+                ItemRepository.EXPORT_BY_OWNER);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public ItemResponseDto getById(int userId, int itemId) {
-        Optional<Item> optionalItem = itemRepository.findById(itemId);
-        if (optionalItem.isEmpty())
-            throw new EntityNotFoundException(ITEM_NOT_FOUND_MESSAGE, itemId);
-        Item itemById = optionalItem.get();
+        return getTaggedById(userId, itemId, getViewVersion(itemId)).getBody();
+    }
 
-        ItemResponseDto result;
-        if (!itemById.getOwner().getId().equals(userId)) {
-            result = itemMapper.mapToItemBookingDatesView(itemById);
-        } else {
-            result = setBookingDatesToItem(itemById);
+    @Override
+    @Transactional(readOnly = true)
+    public TaggedBody<ItemResponseDto> getTaggedById(int userId, int itemId, ItemViewVersion version) {
+        // an entry put back by a reader that raced a write carries an older version and is reloaded here
+        CachedItemView cachedView = itemViewCache.get(itemId);
+        if (cachedView == null || !version.equals(cachedView.getVersion())) {
+            cachedView = loadItemView(itemId, version);
+            itemViewCache.put(itemId, cachedView);
         }
-        result.setComments(commentRepository
-                .findAllByItem_Id(itemId)
-                .stream()
-                .map(itemMapper::mapToCommentView).collect(Collectors.toSet()));
+        // the tag comes from the snapshot the view was built from, so a cached body is never sent under a newer tag
+        return new TaggedBody<>(cachedView.viewFor(userId), cachedView.getVersion().tagFor(userId, LocalDateTime.now()));
+    }
 
-        return result;
+    @Override
+    @Transactional(readOnly = true)
+    public List<CommentResponseDto> getComments(int itemId, CommentCursor cursor, int size) {
+        if (!itemRepository.existsById(itemId))
+            throw new EntityNotFoundException(ITEM_NOT_FOUND_MESSAGE, itemId);
+        List<CommentView> comments = cursor == null
+                ? commentRepository.findNewestByItemId(itemId, size)
+                : commentRepository.findOlderByItemId(itemId, cursor.getCreated(), cursor.getId(), size);
+        return comments.stream().map(itemMapper::mapToCommentView).collect(Collectors.toList());
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ItemViewVersion getViewVersion(int itemId) {
+        return itemRepository.findVersionViewById(itemId)
+                .map(ItemViewVersion::of)
+                .orElseThrow(() -> new EntityNotFoundException(ITEM_NOT_FOUND_MESSAGE, itemId));
     }
 
     @Override
+    @Transactional
     public ItemRequestDto add(int ownerId, ItemRequestDto itemRequestDto) {
         Optional<User> optionalUser = userRepository.findById(ownerId);
         if (optionalUser.isEmpty())
@@ -126,10 +198,45 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(optionalItemRequest.get());
         }
 
-        return itemMapper.mapToItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearchEngine.index(savedItem);
+        return itemMapper.mapToItemDto(savedItem);
+    }
+
+    @Override
+    @Transactional
+    public List<ItemRequestDto> addAll(int ownerId, List<ItemRequestDto> itemRequestDtos) {
+        Optional<User> optionalUser = userRepository.findById(ownerId);
+        if (optionalUser.isEmpty())
+            throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, ownerId);
+
+        Set<Integer> requestIds = itemRequestDtos.stream()
+                .map(ItemRequestDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, ItemRequest> requests = itemRequestRepository.findAllById(requestIds)
+                .stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        for (Integer requestId : requestIds) {
+            if (!requests.containsKey(requestId))
+                throw new EntityNotFoundException(ITEM_REQUEST_NOT_FOUND_MESSAGE, requestId);
+        }
+
+        List<Item> items = itemRequestDtos.stream().map(itemRequestDto -> {
+            Item item = itemMapper.mapToItem(itemRequestDto);
+            item.setOwner(optionalUser.get());
+            if (itemRequestDto.getRequestId() != null)
+                item.setRequest(requests.get(itemRequestDto.getRequestId()));
+            return item;
+        }).collect(Collectors.toList());
+
+        List<Item> savedItems = itemRepository.saveAll(items);
+        savedItems.forEach(itemSearchEngine::index);
+        return savedItems.stream().map(itemMapper::mapToItemDto).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
     public CommentResponseDto addComment(int userId, int itemId, CommentRequestDto commentRequestDto) {
         Optional<User> optionalUser = userRepository.findById(userId);
         if (optionalUser.isEmpty())
@@ -139,7 +246,7 @@ public class ItemServiceImpl implements ItemService {
             throw new EntityNotFoundException(ITEM_NOT_FOUND_MESSAGE, itemId);
 
         List<Booking> bookings = bookingRepository.findAllByBooker_IdAndItem_IdAndStatusAndEndIsBefore(userId, itemId, BookingStatus.APPROVED, LocalDateTime.now());
-        if (bookings.isEmpty()) {
+        if (bookings.isEmpty() && !bookingRepository.existsArchivedApprovedBooking(userId, itemId)) {
 
             throw new BookingForCommentNotFoundException(BOOKING_FOR_COMMENT_NOT_FOUND_EXCEPTION_MESSAGE, itemId);
         }
@@ -150,37 +257,71 @@ public class ItemServiceImpl implements ItemService {
                 .created(LocalDateTime.now())
                 .build();
 
-        return itemMapper.mapToCommentView(commentRepository.save(comment));
+        CommentResponseDto savedComment = itemMapper.mapToCommentView(commentRepository.save(comment));
+        itemRepository.incrementCommentsVersion(itemId);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+        return savedComment;
     }
 
     @Override
-    public ItemRequestDto update(int ownerId, int itemId, ItemRequestDto item) {
+    @Transactional
+    public ItemRequestDto update(int ownerId, int itemId, ItemRequestDto item, Integer expectedVersion) {
+        Optional<Item> optionalItem = itemRepository.patch(itemId, ownerId, item.getName(), item.getDescription(),
+                item.getAvailable(), expectedVersion);
+        if (optionalItem.isEmpty())
+            throw explainRejectedPatch(ownerId, itemId);
+        Item savedItem = optionalItem.get();
+        itemSearchEngine.index(savedItem);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+        return itemMapper.mapToItemDto(savedItem);
+    }
+
+    private RuntimeException explainRejectedPatch(int ownerId, int itemId) {
         Optional<Item> optionalItem = itemRepository.findById(itemId);
         if (optionalItem.isEmpty())
-            throw new EntityNotFoundException(ITEM_NOT_FOUND_MESSAGE, itemId);
-        Item oldItem = optionalItem.get();
-        if (!oldItem.getOwner().getId().equals(ownerId)) {
-            throw new WrongOwnerOrBookerException(WRONG_OWNER_MESSAGE);
-        }
-        if (item.getName() != null)
-            oldItem.setName(item.getName());
-        if (item.getDescription() != null)
-            oldItem.setDescription(item.getDescription());
-        if (item.getAvailable() != null)
-            oldItem.setAvailable(item.getAvailable());
-        return itemMapper.mapToItemDto(itemRepository.save(oldItem));
+            return new EntityNotFoundException(ITEM_NOT_FOUND_MESSAGE, itemId);
+        if (!optionalItem.get().getOwner().getId().equals(ownerId))
+            return new WrongOwnerOrBookerException(WRONG_OWNER_MESSAGE);
+        return new VersionConflictException(ITEM_VERSION_CONFLICT_MESSAGE, itemId);
+    }
+
+    private Map<Integer, Booking> groupLastBookingsByItemId(List<Booking> bookings, LocalDateTime now) {
+        return bookings.stream()
+                .filter(booking -> booking.getStart().isBefore(now))
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        BinaryOperator.maxBy(Comparator.comparing(Booking::getStart))));
+    }
+
+    private Map<Integer, Booking> groupNextBookingsByItemId(List<Booking> bookings, LocalDateTime now) {
+        return bookings.stream()
+                .filter(booking -> !booking.getStart().isBefore(now))
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        BinaryOperator.minBy(Comparator.comparing(Booking::getStart))));
     }
 
-    private ItemResponseDto setBookingDatesToItem(Item item) {
+    private void attachCommentPreview(ItemResponseDto itemView, List<CommentPreviewView> comments) {
+        itemView.setComments(comments.stream().map(itemMapper::mapToCommentView).collect(Collectors.toList()));
+        itemView.setCommentCount(comments.isEmpty() ? 0L : comments.get(0).getItemCommentCount());
+    }
+
+    private CachedItemView loadItemView(int itemId, ItemViewVersion version) {
+        Optional<Item> optionalItem = itemRepository.findById(itemId);
+        if (optionalItem.isEmpty())
+            throw new EntityNotFoundException(ITEM_NOT_FOUND_MESSAGE, itemId);
+        Item item = optionalItem.get();
 
-        Optional<Booking> lastBooking = bookingRepository.findLastBookingDateForItem(item.getId());
-        Optional<Booking> nextBooking = bookingRepository.findNextBookingDateForItem(item.getId());
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> pointedBookings = bookingRepository.findPointedBookingsForItems(List.of(itemId));
+        Optional<Booking> lastBooking = Optional.ofNullable(groupLastBookingsByItemId(pointedBookings, now).get(itemId));
+        Optional<Booking> nextBooking = Optional.ofNullable(groupNextBookingsByItemId(pointedBookings, now).get(itemId));
 
         ItemResponseDto itemView = itemMapper.mapToItemBookingDatesView(item);
         if (lastBooking.isPresent())
             itemView.setLastBooking(bookingMapper.mapToBookingItemView(lastBooking.get()));
         if (nextBooking.isPresent())
             itemView.setNextBooking(bookingMapper.mapToBookingItemView(nextBooking.get()));
-        return itemView;
+        attachCommentPreview(itemView, commentRepository.findNewestByItemIds(List.of(itemId), COMMENT_PREVIEW_SIZE));
+
+        return new CachedItemView(item.getOwner().getId(), itemView, nextBooking.map(Booking::getStart).orElse(null), version);
     }
 }
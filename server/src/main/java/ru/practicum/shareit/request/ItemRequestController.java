@@ -2,12 +2,16 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.VersionTag;
 import ru.practicum.shareit.request.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
+import java.util.Optional;
 
 
 @RestController
@@ -42,9 +46,12 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestResponseDto getItemRequest(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable int requestId) {
+    public ResponseEntity<ItemRequestResponseDto> getItemRequest(@RequestHeader(USER_ID_REQUEST_HEADER) int userId, @PathVariable int requestId, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info(LOGGER_GET_ITEM_REQUEST_BY_ID_MESSAGE, requestId);
-        return itemRequestService.getItemRequest(userId, requestId);
+        Optional<String> tag = itemRequestService.getEntityTag(userId, requestId);
+        if (tag.isPresent() && VersionTag.matches(ifNoneMatch, tag.get()))
+            return VersionTag.notModified(tag.get());
+        return VersionTag.ok(itemRequestService.getTaggedItemRequest(userId, requestId));
     }
 
 }
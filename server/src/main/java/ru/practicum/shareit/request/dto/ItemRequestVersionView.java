@@ -0,0 +1,9 @@
+package ru.practicum.shareit.request.dto;
+
+public interface ItemRequestVersionView {
+    Long getItemVersions();
+
+    Long getItemCount();
+
+    Integer getLastItemId();
+}
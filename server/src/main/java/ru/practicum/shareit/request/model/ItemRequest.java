@@ -4,11 +4,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
+import static ru.practicum.shareit.config.SecondLevelCacheConfig.REQUESTS_REGION;
+
 
 @Data
 @AllArgsConstructor
@@ -16,14 +20,17 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @Table(name = "requests", schema = "public")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = REQUESTS_REGION)
 public class ItemRequest {
     @Column(name = "request_id")
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private Integer id;
     @Column(name = "description", nullable = false, length = 200)
     private String description;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User requestor;
     @Column(name = "created", nullable = false)
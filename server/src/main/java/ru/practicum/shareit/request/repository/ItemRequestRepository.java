@@ -3,13 +3,25 @@ package ru.practicum.shareit.request.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.dto.ItemRequestVersionView;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Integer> {
     List<ItemRequest> findAllByRequestor_Id(int userId);
 
+    @Query("select r.id from ItemRequest r where r.requestor.id = :userId")
+    List<Integer> findIdsByRequestorId(@Param("userId") int userId);
+
+    @Query(value = "select coalesce(sum(i.version), 0) as itemVersions, count(i.item_id) as itemCount, " +
+            "max(i.item_id) as lastItemId " +
+            "from requests as r left join items as i on i.request_id = r.request_id " +
+            "where r.request_id = :requestId " +
+            "group by r.request_id", nativeQuery = true)
+    Optional<ItemRequestVersionView> findVersionViewById(@Param("requestId") int requestId);
+
     @Query(value = "select *  " +
             "from requests as r " +
             "where r.user_id NOT IN(:userId) " +
@@ -1,9 +1,11 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.common.TaggedBody;
 import ru.practicum.shareit.request.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestService {
 
@@ -15,4 +17,8 @@ public interface ItemRequestService {
 
     ItemRequestResponseDto getItemRequest(int userId, int requestId);
 
+    TaggedBody<ItemRequestResponseDto> getTaggedItemRequest(int userId, int requestId);
+
+    Optional<String> getEntityTag(int userId, int requestId);
+
 }
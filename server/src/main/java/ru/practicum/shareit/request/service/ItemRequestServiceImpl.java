@@ -2,8 +2,12 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.TaggedBody;
+import ru.practicum.shareit.common.VersionTag;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
@@ -14,7 +18,9 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,6 +39,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestMapper itemRequestMapper;
 
 
+    @Override
+    @Transactional
     public ItemRequestResponseDto addItemRequest(int userId, ItemRequestRequestDto itemRequestRequestDto) {
         Optional<User> optionalUser = userRepository.findById(userId);
         if (optionalUser.isEmpty())
@@ -44,6 +52,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestMapper.mapToItemRequestDto(itemRequestRepository.save(itemRequest));
     }
 
+    @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestResponseDto> getUserItemRequests(int userId) {
         Optional<User> optionalUser = userRepository.findById(userId);
         if (optionalUser.isEmpty())
@@ -55,6 +65,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequests;
     }
 
+    @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestResponseDto> getAllUsersItemRequest(int userId, int from, int size) {
         List<ItemRequestResponseDto> itemRequests = itemRequestRepository.findAllUsersItemRequest(userId, from, size)
                 .stream()
@@ -64,7 +76,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequests;
     }
 
+    @Override
+    @Transactional(readOnly = true)
     public ItemRequestResponseDto getItemRequest(int userId, int requestId) {
+        return getTaggedItemRequest(userId, requestId).getBody();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaggedBody<ItemRequestResponseDto> getTaggedItemRequest(int userId, int requestId) {
         Optional<User> optionalUser = userRepository.findById(userId);
         if (optionalUser.isEmpty())
             throw new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, userId);
@@ -73,20 +93,37 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             throw new EntityNotFoundException(ITEM_REQUEST_NOT_FOUND_MESSAGE, requestId);
 
         ItemRequestResponseDto result = itemRequestMapper.mapToItemRequestDto(optionalItemRequest.get());
+        List<Item> items = itemRepository.findAllByRequest_Id(result.getId());
         result.setItems(
-                itemRepository.findAllByRequest_Id(result.getId())
-                        .stream()
+                items.stream()
                         .map(itemMapper::mapToItemDto)
                         .collect(Collectors.toList())
         );
-        return result;
+        long itemVersions = items.stream().mapToLong(Item::getVersion).sum();
+        Integer lastItemId = items.stream().map(Item::getId).max(Integer::compareTo).orElse(null);
+        return new TaggedBody<>(result, VersionTag.compose(itemVersions, items.size(), lastItemId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> getEntityTag(int userId, int requestId) {
+        if (userRepository.findById(userId).isEmpty())
+            return Optional.empty();
+        return itemRequestRepository.findVersionViewById(requestId)
+                .map(view -> VersionTag.compose(view.getItemVersions(), view.getItemCount(), view.getLastItemId()));
     }
 
     private void setItemsToItemRequests(List<ItemRequestResponseDto> itemRequests) {
+        if (itemRequests.isEmpty())
+            return;
+        List<Integer> requestIds = itemRequests.stream()
+                .map(ItemRequestResponseDto::getId)
+                .collect(Collectors.toList());
+        Map<Integer, List<Item>> itemsByRequestId = itemRepository.findAllGroupedByRequestIds(requestIds);
         itemRequests.forEach(
                 itemRequestResponseDto ->
                         itemRequestResponseDto.setItems(
-                                itemRepository.findAllByRequest_Id(itemRequestResponseDto.getId())
+                                itemsByRequestId.getOrDefault(itemRequestResponseDto.getId(), new ArrayList<>())
                                         .stream()
                                         .map(itemMapper::mapToItemDto)
                                         .collect(Collectors.toList())
@@ -2,7 +2,10 @@ package ru.practicum.shareit.user;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.VersionTag;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -16,6 +19,7 @@ import java.util.List;
 public class UserController {
     private static final String LOGGER_GET_USERS_MESSAGE = "Returning list of users";
     private static final String LOGGER_ADD_USER_MESSAGE = "Adding user ";
+    private static final String LOGGER_ADD_USERS_MESSAGE = "Adding {} users";
     private static final String LOGGER_GET_USER_BY_ID_MESSAGE = "Getting user with id: {}";
     private static final String LOGGER_UPDATE_USER_MESSAGE = "Updating user with id: {}";
     private static final String LOGGER_REMOVE_USER_MESSAGE = "Removing user with id: {}";
@@ -28,6 +32,12 @@ public class UserController {
         return userService.add(user);
     }
 
+    @PostMapping("/batch")
+    public List<UserDto> addUsers(@RequestBody List<UserDto> users) {
+        log.info(LOGGER_ADD_USERS_MESSAGE, users.size());
+        return userService.addAll(users);
+    }
+
     @GetMapping
     public List<UserDto> getAllUsers() {
         log.info(LOGGER_GET_USERS_MESSAGE);
@@ -35,15 +45,17 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public UserDto getUser(@PathVariable("id") int userId) {
+    public ResponseEntity<UserDto> getUser(@PathVariable("id") int userId) {
         log.info(LOGGER_GET_USER_BY_ID_MESSAGE, userId);
-        return userService.getById(userId);
+        UserDto user = userService.getById(userId);
+        return VersionTag.ok(user, user.getVersion());
     }
 
     @PatchMapping("/{id}")
-    public UserDto updateUser(@PathVariable("id") int userId, @RequestBody UserDto user) {
+    public ResponseEntity<UserDto> updateUser(@PathVariable("id") int userId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, @RequestBody UserDto user) {
         log.info(LOGGER_UPDATE_USER_MESSAGE, userId);
-        return userService.update(userId, user);
+        UserDto updatedUser = userService.update(userId, user, VersionTag.parse(ifMatch));
+        return VersionTag.ok(updatedUser, updatedUser.getVersion());
     }
 
     @DeleteMapping("/{id}")
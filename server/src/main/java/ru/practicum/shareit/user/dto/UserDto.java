@@ -10,4 +10,5 @@ public class UserDto {
     private Integer id;
     private String name;
     private String email;
+    private Integer version;
 }
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.user.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.common.StaleReplicaPutGuard;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+@Component
+@RequiredArgsConstructor
+public class UserRemovedCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRemoved(UserRemovedEvent event) {
+        // requests and items go with the user through ON DELETE CASCADE, including items answering the user's requests
+        evict(User.class, event.getUserId());
+        event.getRemovedItemIds().forEach(itemId -> evict(Item.class, itemId));
+        event.getRemovedRequestIds().forEach(requestId -> evict(ItemRequest.class, requestId));
+    }
+
+    private void evict(Class<?> entityClass, int id) {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(entityClass, id);
+        StaleReplicaPutGuard.recordEviction(entityManagerFactory, entityClass, id);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.user.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class UserRemovedEvent {
+    private final int userId;
+    private final List<Integer> removedItemIds;
+    private final List<Integer> removedRequestIds;
+}
@@ -11,7 +11,8 @@ public class UserMapper {
         return new UserDto(
                 user.getId(),
                 user.getName(),
-                user.getEmail()
+                user.getEmail(),
+                user.getVersion()
         );
     }
 
@@ -20,6 +21,7 @@ public class UserMapper {
                 .id(userDto.getId())
                 .name(userDto.getName())
                 .email(userDto.getEmail())
+                .version(userDto.getVersion())
                 .build();
     }
 }
@@ -4,9 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
+import static ru.practicum.shareit.config.SecondLevelCacheConfig.USERS_REGION;
+
 
 @Data
 @Builder
@@ -14,14 +18,20 @@ import javax.persistence.*;
 @NoArgsConstructor
 @Entity
 @Table(name = "users", schema = "public")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = USERS_REGION)
 public class User {
     @Column(name = "user_id")
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Integer id;
     @Column(name = "name", nullable = false, length = 20)
     private String name;
     @Column(name = "email", nullable = false, unique = true, length = 50)
     private String email;
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
 
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.user.repository;
+
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Optional;
+
+public interface UserPatchRepository {
+
+    Optional<User> patch(int userId, String name, String email, Integer expectedVersion);
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.user.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.shareit.common.EntityCacheEviction;
+import ru.practicum.shareit.common.ReturningUpdateTemplate;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class UserPatchRepositoryImpl implements UserPatchRepository {
+    private static final String RETURNING_COLUMNS = "user_id, name, email, version";
+    private static final RowMapper<User> USER_ROW_MAPPER = (resultSet, rowNum) -> User.builder()
+            .id(resultSet.getInt("user_id"))
+            .name(resultSet.getString("name"))
+            .email(resultSet.getString("email"))
+            .version(resultSet.getInt("version"))
+            .build();
+
+    private final ReturningUpdateTemplate returningUpdateTemplate;
+    private final EntityManager entityManager;
+
+    public UserPatchRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.returningUpdateTemplate = new ReturningUpdateTemplate(jdbcTemplate);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<User> patch(int userId, String name, String email, Integer expectedVersion) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("userId", userId);
+        List<String> assignments = new ArrayList<>();
+        if (name != null) {
+            assignments.add("name = :name");
+            parameters.addValue("name", name);
+        }
+        if (email != null) {
+            assignments.add("email = :email");
+            parameters.addValue("email", email);
+        }
+        // an empty patch must not bump the version, a set to itself keeps the statement uniform
+        assignments.add(assignments.isEmpty() ? "version = version" : "version = version + 1");
+
+        String update = "update users set " + String.join(", ", assignments) + " where user_id = :userId";
+        if (expectedVersion != null) {
+            update += " and version = :expectedVersion";
+            parameters.addValue("expectedVersion", expectedVersion);
+        }
+        Optional<User> patched = returningUpdateTemplate.update(update, RETURNING_COLUMNS, parameters, USER_ROW_MAPPER);
+        patched.ifPresent(user -> EntityCacheEviction.evict(entityManager, User.class, userId));
+        return patched;
+    }
+}
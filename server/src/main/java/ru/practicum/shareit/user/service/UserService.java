@@ -12,7 +12,9 @@ public interface UserService {
 
     UserDto add(UserDto user);
 
-    UserDto update(int id, UserDto user);
+    List<UserDto> addAll(List<UserDto> users);
+
+    UserDto update(int id, UserDto user, Integer expectedVersion);
 
     void remove(int id);
 
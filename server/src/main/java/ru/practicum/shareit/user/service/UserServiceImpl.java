@@ -1,13 +1,20 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.VersionConflictException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.event.UserRemovedEvent;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,16 +22,22 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class UserServiceImpl implements UserService {
     public static final String USER_NOT_FOUND_MESSAGE = "User with id %d not found";
+    public static final String USER_VERSION_CONFLICT_MESSAGE = "User with id %d has been modified by another request";
 
     private final UserRepository repository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
     private final UserMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> getAll() {
         return repository.findAll().stream().map(mapper::mapToUserDto).collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto getById(int id) {
         return mapper.mapToUserDto(
                 repository.findById(id)
@@ -33,23 +46,50 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public UserDto add(UserDto user) {
-        return mapper.mapToUserDto(repository.save(mapper.mapToUser(user)));
+        User newUser = mapper.mapToUser(user);
+        newUser.setId(null);
+        newUser.setVersion(null);
+        return mapper.mapToUserDto(repository.save(newUser));
     }
 
     @Override
-    public UserDto update(int id, UserDto user) {
-        User oldUser = mapper.mapToUser(getById(id));
+    @Transactional
+    public List<UserDto> addAll(List<UserDto> users) {
+        List<User> newUsers = users.stream()
+                .map(mapper::mapToUser)
+                .peek(user -> {
+                    user.setId(null);
+                    user.setVersion(null);
+                })
+                .collect(Collectors.toList());
+        return repository.saveAll(newUsers).stream().map(mapper::mapToUserDto).collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public UserDto update(int id, UserDto user, Integer expectedVersion) {
+        User updatedUser = repository.patch(id, user.getName(), user.getEmail(), expectedVersion)
+                .orElseThrow(() -> expectedVersion != null && repository.existsById(id)
+                        ? new VersionConflictException(USER_VERSION_CONFLICT_MESSAGE, id)
+                        : new EntityNotFoundException(USER_NOT_FOUND_MESSAGE, id));
         if (user.getName() != null)
-            oldUser.setName(user.getName());
-        if (user.getEmail() != null)
-            oldUser.setEmail(user.getEmail());
-        return mapper.mapToUserDto(repository.save(oldUser));
+            itemRepository.incrementCommentsVersionByAuthor(id);
+        return mapper.mapToUserDto(updatedUser);
     }
 
     @Override
+    @Transactional
     public void remove(int id) {
         User user = mapper.mapToUser(getById(id));
+        List<Integer> removedItemIds = itemRepository.findIdsRemovedWithUser(id);
+        List<Integer> removedRequestIds = itemRequestRepository.findIdsByRequestorId(id);
+        List<Integer> repointedItemIds = itemRepository.findIdsPointingToBookingsOf(id);
         repository.delete(user);
+        // the user's bookings go with them by cascade, items of other owners must stop pointing at them
+        LocalDateTime now = LocalDateTime.now();
+        repointedItemIds.forEach(itemId -> itemRepository.refreshBookingPointers(itemId, now));
+        eventPublisher.publishEvent(new UserRemovedEvent(id, removedItemIds, removedRequestIds));
     }
 }
@@ -0,0 +1,46 @@
+ALTER TABLE users ALTER COLUMN user_id DROP IDENTITY;
+ALTER TABLE requests ALTER COLUMN request_id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN item_id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN booking_id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN comment_id DROP IDENTITY;
+
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE comments_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE users ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN last_booking_id INTEGER;
+ALTER TABLE items ADD COLUMN next_booking_id INTEGER;
+ALTER TABLE items ADD COLUMN next_booking_start TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE items ADD CONSTRAINT items_item_owner_unique UNIQUE (item_id, user_id);
+
+ALTER TABLE bookings ADD COLUMN owner_id INTEGER;
+ALTER TABLE bookings ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+UPDATE bookings SET owner_id = (SELECT i.user_id FROM items AS i WHERE i.item_id = bookings.item_id);
+ALTER TABLE bookings ADD CONSTRAINT bookings_item_owner_fk FOREIGN KEY (item_id, owner_id)
+    REFERENCES items(item_id, user_id) ON UPDATE CASCADE ON DELETE CASCADE;
+
+CREATE TABLE bookings_archive(
+    booking_id INTEGER NOT NULL PRIMARY KEY,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL ,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL ,
+    item_id INTEGER REFERENCES items(item_id) ON DELETE CASCADE,
+    booker_id INTEGER REFERENCES users(user_id) ON DELETE CASCADE,
+    status VARCHAR(8) NOT NULL,
+    owner_id INTEGER,
+    version INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT bookings_archive_item_owner_fk FOREIGN KEY (item_id, owner_id)
+        REFERENCES items(item_id, user_id) ON UPDATE CASCADE ON DELETE CASCADE
+);
+
+UPDATE items SET
+    last_booking_id = (SELECT bk.booking_id FROM bookings AS bk
+        WHERE bk.item_id = items.item_id AND bk.status = 'APPROVED' AND bk.start_date < LOCALTIMESTAMP
+        ORDER BY bk.start_date DESC, bk.booking_id DESC LIMIT 1),
+    (next_booking_id, next_booking_start) = (SELECT bk.booking_id, bk.start_date FROM bookings AS bk
+        WHERE bk.item_id = items.item_id AND bk.status = 'APPROVED' AND bk.start_date >= LOCALTIMESTAMP
+        ORDER BY bk.start_date, bk.booking_id LIMIT 1);
@@ -0,0 +1 @@
+ALTER TABLE items ADD COLUMN comments_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+ALTER SEQUENCE users_seq RESTART WITH (SELECT coalesce(max(user_id) + 50, 1) FROM users);
+ALTER SEQUENCE requests_seq RESTART WITH (SELECT coalesce(max(request_id) + 50, 1) FROM requests);
+ALTER SEQUENCE items_seq RESTART WITH (SELECT coalesce(max(item_id) + 50, 1) FROM items);
+ALTER SEQUENCE bookings_seq RESTART WITH (SELECT coalesce(max(booking_id) + 50, 1) FROM bookings);
+ALTER SEQUENCE comments_seq RESTART WITH (SELECT coalesce(max(comment_id) + 50, 1) FROM comments);
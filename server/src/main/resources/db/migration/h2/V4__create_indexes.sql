@@ -0,0 +1,18 @@
+CREATE INDEX IF NOT EXISTS idx_requests_user_created ON requests(user_id, created DESC);
+
+CREATE INDEX IF NOT EXISTS idx_items_user ON items(user_id, item_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON items(request_id);
+CREATE INDEX IF NOT EXISTS idx_items_next_booking_start ON items(next_booking_start);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings(booker_id, start_date DESC, booking_id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings(item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings(item_id, start_date DESC, booking_id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_start ON bookings(owner_id, start_date DESC, booking_id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON bookings(end_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive(booker_id, start_date DESC, booking_id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_owner_start ON bookings_archive(owner_id, start_date DESC, booking_id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_status_start ON bookings_archive(item_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments(item_id, created DESC, comment_id DESC);
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments(author_id);
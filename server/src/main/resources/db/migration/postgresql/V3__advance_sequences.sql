@@ -0,0 +1,5 @@
+SELECT setval('users_seq', coalesce(max(user_id) + 50, 1), false) FROM users;
+SELECT setval('requests_seq', coalesce(max(request_id) + 50, 1), false) FROM requests;
+SELECT setval('items_seq', coalesce(max(item_id) + 50, 1), false) FROM items;
+SELECT setval('bookings_seq', coalesce(max(booking_id) + 50, 1), false) FROM bookings;
+SELECT setval('comments_seq', coalesce(max(comment_id) + 50, 1), false) FROM comments;
@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_comments_item_created;
+CREATE INDEX CONCURRENTLY idx_comments_item_created ON comments(item_id, created DESC, comment_id DESC);
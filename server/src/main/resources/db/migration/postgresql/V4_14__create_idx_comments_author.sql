@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_comments_author;
+CREATE INDEX CONCURRENTLY idx_comments_author ON comments(author_id);
@@ -0,0 +1,3 @@
+DROP INDEX CONCURRENTLY IF EXISTS items_search_idx;
+CREATE INDEX CONCURRENTLY items_search_idx ON items
+    USING GIN (to_tsvector('simple', name || ' ' || coalesce(description, '')));
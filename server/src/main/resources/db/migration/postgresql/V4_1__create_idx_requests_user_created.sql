@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_requests_user_created;
+CREATE INDEX CONCURRENTLY idx_requests_user_created ON requests(user_id, created DESC);
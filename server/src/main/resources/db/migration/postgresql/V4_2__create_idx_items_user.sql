@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_items_user;
+CREATE INDEX CONCURRENTLY idx_items_user ON items(user_id, item_id);
@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_items_request;
+CREATE INDEX CONCURRENTLY idx_items_request ON items(request_id);
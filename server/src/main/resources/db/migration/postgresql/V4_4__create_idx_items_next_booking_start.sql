@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_items_next_booking_start;
+CREATE INDEX CONCURRENTLY idx_items_next_booking_start ON items(next_booking_start);
@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_bookings_booker_start;
+CREATE INDEX CONCURRENTLY idx_bookings_booker_start ON bookings(booker_id, start_date DESC, booking_id DESC);
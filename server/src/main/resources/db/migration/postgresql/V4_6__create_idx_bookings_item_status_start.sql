@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_bookings_item_status_start;
+CREATE INDEX CONCURRENTLY idx_bookings_item_status_start ON bookings(item_id, status, start_date);
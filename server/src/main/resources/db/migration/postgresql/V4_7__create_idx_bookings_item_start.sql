@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_bookings_item_start;
+CREATE INDEX CONCURRENTLY idx_bookings_item_start ON bookings(item_id, start_date DESC, booking_id DESC);
@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_bookings_owner_start;
+CREATE INDEX CONCURRENTLY idx_bookings_owner_start ON bookings(owner_id, start_date DESC, booking_id DESC);
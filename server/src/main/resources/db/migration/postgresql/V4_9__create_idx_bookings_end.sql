@@ -0,0 +1,2 @@
+DROP INDEX CONCURRENTLY IF EXISTS idx_bookings_end;
+CREATE INDEX CONCURRENTLY idx_bookings_end ON bookings(end_date);
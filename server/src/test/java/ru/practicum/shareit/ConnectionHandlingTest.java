@@ -0,0 +1,95 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.common.ConnectionHoldTimeDataSource.HOLD_TIME_METRIC;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "db.name=test")
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ConnectionHandlingTest {
+
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    @AfterEach
+    void clear() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getById_whenServedOverHttp_thenHoldTimeRecordedPerEndpoint() throws Exception {
+        UserDto user = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+
+        mockMvc.perform(get("/users/{id}", user.getId())).andExpect(status().isOk());
+
+        Timer timer = meterRegistry.find(HOLD_TIME_METRIC).tags("method", "GET", "uri", "/users/{id}").timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() > 0);
+    }
+
+    @Test
+    void getById_whenDifferentIdsRequested_thenHoldTimeTaggedByPatternOnly() throws Exception {
+        UserDto first = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        UserDto second = userService.add(new UserDto(null, "John", "johndoe@gmail.com", null));
+
+        mockMvc.perform(get("/users/{id}", first.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/users/{id}", second.getId())).andExpect(status().isOk());
+
+        assertEquals(1, meterRegistry.find(HOLD_TIME_METRIC).tags("method", "GET", "uri", "/users/{id}").timers().size());
+        meterRegistry.find(HOLD_TIME_METRIC).timers().forEach(timer -> {
+            String uri = timer.getId().getTag("uri");
+            assertFalse(uri.contains(String.valueOf(first.getId())) || uri.contains(String.valueOf(second.getId())), uri);
+        });
+    }
+
+    @Test
+    void getById_whenCalledOutsideTransaction_thenBookingItemLoadedByFetchPlan() {
+        UserDto owner = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        UserDto booker = userService.add(new UserDto(null, "John", "johndoe@gmail.com", null));
+        ItemRequestDto item = itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Пылесос").description("Пылесос").available(true).build());
+        BookingResponseDto booking = bookingService.add(booker.getId(), BookingRequestDto.builder()
+                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2)).itemId(item.getId())
+                .build());
+
+        BookingResponseDto found = bookingService.getById(owner.getId(), booking.getId());
+
+        assertEquals("Пылесос", found.getItem().getName());
+        assertEquals(booker.getId(), found.getBooker().getId());
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingArchiveJob;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {"db.name=test", "shareit.export.fetch-size=1"})
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ExportEndpointsTest {
+    private static final String USER_ID_REQUEST_HEADER = "X-Sharer-User-Id";
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingArchiveJob bookingArchiveJob;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemRequestDto firstItem;
+    private ItemRequestDto secondItem;
+    private BookingResponseDto archivedBooking;
+    private BookingResponseDto liveBooking;
+
+    @BeforeEach
+    void initialize() {
+        owner = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        booker = userService.add(new UserDto(null, "John", "johndoe@gmail.com", null));
+        firstItem = itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Пылесос").description("Пылесос").available(true).build());
+        secondItem = itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Кофеварка").description("Кофеварка").available(true).build());
+        LocalDateTime now = LocalDateTime.now();
+        archivedBooking = bookingService.add(booker.getId(), BookingRequestDto.builder()
+                .start(now.plusDays(1)).end(now.plusDays(2)).itemId(firstItem.getId())
+                .build());
+        liveBooking = bookingService.add(booker.getId(), BookingRequestDto.builder()
+                .start(now.plusDays(3)).end(now.plusDays(4)).itemId(secondItem.getId())
+                .build());
+        bookingArchiveJob.archiveBookingsEndedBefore(now.plusDays(3));
+    }
+
+    @AfterEach
+    void clear() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exportUserBookings_thenLiveAndArchivedBookingsStreamedAsJsonLines() throws Exception {
+        List<JsonNode> lines = export("/bookings/export", booker.getId());
+
+        assertEquals(2, lines.size());
+        assertEquals(liveBooking.getId(), lines.get(0).get("id").asInt());
+        assertEquals("Кофеварка", lines.get(0).get("item").get("name").asText());
+        assertEquals(archivedBooking.getId(), lines.get(1).get("id").asInt());
+        assertEquals(booker.getId(), lines.get(1).get("booker").get("id").asInt());
+    }
+
+    @Test
+    void exportUserBookings_whenArchivedBookingStartsBetweenLiveOnes_thenNewestFirstAcrossBoth() throws Exception {
+        ItemRequestDto thirdItem = itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Утюг").description("Утюг").available(true).build());
+        BookingResponseDto longBooking = bookingService.add(booker.getId(), BookingRequestDto.builder()
+                .start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(10)).itemId(thirdItem.getId())
+                .build());
+
+        List<JsonNode> lines = export("/bookings/export", booker.getId());
+
+        assertEquals(3, lines.size());
+        assertEquals(liveBooking.getId(), lines.get(0).get("id").asInt());
+        assertEquals(archivedBooking.getId(), lines.get(1).get("id").asInt());
+        assertEquals(longBooking.getId(), lines.get(2).get("id").asInt());
+    }
+
+    @Test
+    void exportBookingsByItemsOwner_thenLiveAndArchivedBookingsStreamedAsJsonLines() throws Exception {
+        List<JsonNode> lines = export("/bookings/owner/export", owner.getId());
+
+        assertEquals(2, lines.size());
+        assertEquals(liveBooking.getId(), lines.get(0).get("id").asInt());
+        assertEquals(archivedBooking.getId(), lines.get(1).get("id").asInt());
+        assertEquals(firstItem.getId(), lines.get(1).get("item").get("id").asInt());
+        assertTrue(export("/bookings/owner/export", booker.getId()).isEmpty());
+    }
+
+    @Test
+    void exportAllByOwner_thenOwnItemsStreamedAsJsonLines() throws Exception {
+        List<JsonNode> lines = export("/items/export", owner.getId());
+
+        assertEquals(2, lines.size());
+        assertEquals(firstItem.getId(), lines.get(0).get("id").asInt());
+        assertEquals("Пылесос", lines.get(0).get("name").asText());
+        assertEquals(secondItem.getId(), lines.get(1).get("id").asInt());
+        assertTrue(export("/items/export", booker.getId()).isEmpty());
+    }
+
+    private List<JsonNode> export(String path, int userId) throws Exception {
+        MvcResult result = mockMvc.perform(get(path).header(USER_ID_REQUEST_HEADER, userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> lines = new ArrayList<>();
+        if (body.isEmpty())
+            return lines;
+        assertTrue(body.endsWith("\n"), body);
+        for (String line : body.substring(0, body.length() - 1).split("\n", -1)) {
+            assertFalse(line.isBlank(), body);
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,249 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.common.JsonLinesExporter;
+import ru.practicum.shareit.common.ReadWriteRoutingDataSource;
+import ru.practicum.shareit.common.ReadYourWritesFilter;
+import ru.practicum.shareit.item.cache.CachedItemView;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareit.config.CacheConfig.ITEM_VIEWS_CACHE;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReadReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:shareit-replica;DB_CLOSE_DELAY=-1";
+
+    static {
+        // the replica schema has to exist before the context starts, the search index is built from it on startup
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "test", "test")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "test", "test"));
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReadYourWritesFilter readYourWritesFilter;
+    @Autowired
+    private JsonLinesExporter jsonLinesExporter;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+    }
+
+    @AfterEach
+    void clear() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        cacheManager.getCache(ITEM_VIEWS_CACHE).clear();
+        replica.update("delete from items");
+        replica.update("delete from users");
+    }
+
+    @Test
+    void readOnlyTransaction_whenNotPinned_thenReadsReplica() {
+        assertEquals(0, countUsers(true));
+        assertEquals(1, countUsers(false));
+    }
+
+    @Test
+    void readOnlyTransaction_whenPinned_thenReadsPrimary() {
+        ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            assertEquals(1, countUsers(true));
+        } finally {
+            ReadWriteRoutingDataSource.releasePin();
+        }
+    }
+
+    @Test
+    void filter_whenUserHasJustWritten_thenFollowingReadsPinned() throws Exception {
+        assertFalse(pinnedWhileHandling("GET", "1"));
+        assertTrue(pinnedWhileHandling("PATCH", "1"));
+        assertTrue(pinnedWhileHandling("GET", "1"));
+        assertFalse(pinnedWhileHandling("GET", "2"));
+        assertFalse(ReadWriteRoutingDataSource.isPinnedToPrimary());
+    }
+
+    @Test
+    void filter_whenWriteWithoutUserHeader_thenPinned() throws Exception {
+        assertTrue(pinnedWhileHandling("PATCH", null));
+        assertFalse(pinnedWhileHandling("GET", null));
+    }
+
+    @Test
+    void export_whenPinnedOnRequestThread_thenStreamsFromPrimary() throws Exception {
+        StreamingResponseBody body;
+        ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            body = jsonLinesExporter.export((resultSet, rowNum) -> resultSet.getString("name"),
+                    new MapSqlParameterSource(), "select name from users");
+        } finally {
+            ReadWriteRoutingDataSource.releasePin();
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CompletableFuture.runAsync(() -> {
+            try {
+                body.writeTo(outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).get();
+
+        assertEquals("\"Mark\"\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getItem_whenReadFromReplica_thenViewCached() {
+        UserDto owner = userService.add(new UserDto(null, "Alex", "alex@gmail.com", null));
+        ItemRequestDto item = itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Пылесос").description("Пылесос").available(true).build());
+        copyToReplica(owner, item);
+
+        assertEquals("Пылесос", itemService.getById(owner.getId(), item.getId()).getName());
+
+        CachedItemView cachedView = cacheManager.getCache(ITEM_VIEWS_CACHE).get(item.getId(), CachedItemView.class);
+        assertNotNull(cachedView);
+        assertEquals("Пылесос", cachedView.viewFor(owner.getId()).getName());
+    }
+
+    @Test
+    void getItem_whenReplicaLagsBehindUpdate_thenNewerViewReplacesStaleOne() {
+        UserDto owner = userService.add(new UserDto(null, "Alex", "alex@gmail.com", null));
+        ItemRequestDto item = itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Пылесос").description("Пылесос").available(true).build());
+        // the replica has only caught up with the insert when the update evicts the view
+        copyToReplica(owner, item);
+        itemService.update(owner.getId(), item.getId(), ItemRequestDto.builder().name("Робот-пылесос").build(), null);
+
+        assertEquals("Пылесос", itemService.getById(owner.getId(), item.getId()).getName());
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+
+        ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            assertEquals("Робот-пылесос", itemService.getById(owner.getId(), item.getId()).getName());
+        } finally {
+            ReadWriteRoutingDataSource.releasePin();
+        }
+        CachedItemView cachedView = cacheManager.getCache(ITEM_VIEWS_CACHE).get(item.getId(), CachedItemView.class);
+        assertEquals("Робот-пылесос", cachedView.viewFor(owner.getId()).getName());
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+
+        // the replica read carries the older version and cannot replace the newer view
+        itemService.getById(owner.getId(), item.getId());
+        cachedView = cacheManager.getCache(ITEM_VIEWS_CACHE).get(item.getId(), CachedItemView.class);
+        assertEquals("Робот-пылесос", cachedView.viewFor(owner.getId()).getName());
+    }
+
+    @Test
+    void findUser_whenReadFromReplica_thenSecondLevelCacheFilled() {
+        UserDto user = userService.add(new UserDto(null, "Alex", "alex@gmail.com", null));
+        replica.update("insert into users(user_id, name, email) values (?, ?, ?)", user.getId(), user.getName(), user.getEmail());
+        entityManagerFactory.getCache().evict(User.class, user.getId());
+
+        assertEquals("Alex", findUserName(user.getId()));
+
+        assertTrue(entityManagerFactory.getCache().contains(User.class, user.getId()));
+    }
+
+    @Test
+    void findUser_whenEvictedByRecentUpdate_thenReplicaReadNotCached() {
+        UserDto user = userService.add(new UserDto(null, "Alex", "alex@gmail.com", null));
+        replica.update("insert into users(user_id, name, email) values (?, ?, ?)", user.getId(), user.getName(), user.getEmail());
+        userService.update(user.getId(), new UserDto(null, "Alexander", null, null), null);
+
+        assertEquals("Alex", findUserName(user.getId()));
+        assertFalse(entityManagerFactory.getCache().contains(User.class, user.getId()));
+
+        ReadWriteRoutingDataSource.pinToPrimary();
+        try {
+            assertEquals("Alexander", findUserName(user.getId()));
+        } finally {
+            ReadWriteRoutingDataSource.releasePin();
+        }
+        assertTrue(entityManagerFactory.getCache().contains(User.class, user.getId()));
+    }
+
+    private void copyToReplica(UserDto owner, ItemRequestDto item) {
+        replica.update("insert into users(user_id, name, email) values (?, ?, ?)",
+                owner.getId(), owner.getName(), owner.getEmail());
+        replica.update("insert into items(item_id, name, description, available, user_id) values (?, ?, ?, ?, ?)",
+                item.getId(), item.getName(), item.getDescription(), true, owner.getId());
+    }
+
+    private String findUserName(int userId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> userRepository.findById(userId).orElseThrow().getName());
+    }
+
+    private long countUsers(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> userRepository.count());
+    }
+
+    private boolean pinnedWhileHandling(String method, String userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/items");
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        AtomicBoolean pinned = new AtomicBoolean();
+        readYourWritesFilter.doFilter(request, new MockHttpServletResponse(),
+                (servletRequest, servletResponse) -> pinned.set(ReadWriteRoutingDataSource.isPinnedToPrimary()));
+        return pinned.get();
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareit.config.SecondLevelCacheConfig.ITEMS_REGION;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class SecondLevelCacheTest {
+
+    private final ItemService itemService;
+    private final UserService userService;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    @AfterEach
+    void clear() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void findById_whenItemCached_thenServedFromSecondLevelCache() {
+        ItemRequestDto item = addItem(addOwner());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        itemRepository.findById(item.getId());
+
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertEquals(1, statistics.getDomainDataRegionStatistics(ITEMS_REGION).getHitCount());
+        assertFalse(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", ITEMS_REGION).meters().isEmpty());
+    }
+
+    @Test
+    void update_whenItemCached_thenEntryEvicted() {
+        UserDto owner = addOwner();
+        ItemRequestDto item = addItem(owner);
+        itemRepository.findById(item.getId());
+
+        itemService.update(owner.getId(), item.getId(), ItemRequestDto.builder().name("Утюг").build(), null);
+
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertEquals("Утюг", itemRepository.findById(item.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void remove_whenOwnerRemoved_thenItemsEvicted() {
+        UserDto owner = addOwner();
+        ItemRequestDto item = addItem(owner);
+        itemRepository.findById(item.getId());
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+
+        userService.remove(owner.getId());
+
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertTrue(itemRepository.findById(item.getId()).isEmpty());
+    }
+
+    @Test
+    void remove_whenOwnerRemoved_thenOtherOwnersItemsStayCached() {
+        UserDto owner = addOwner();
+        ItemRequestDto item = addItem(owner);
+        UserDto anotherOwner = userService.add(new UserDto(null, "John", "johndoe@gmail.com", null));
+        ItemRequestDto anotherItem = addItem(anotherOwner);
+        itemRepository.findById(item.getId());
+        itemRepository.findById(anotherItem.getId());
+
+        userService.remove(owner.getId());
+
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, anotherItem.getId()));
+    }
+
+    private UserDto addOwner() {
+        return userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+    }
+
+    private ItemRequestDto addItem(UserDto owner) {
+        return itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Пылесос").description("Пылесос").available(true).build());
+    }
+}
@@ -0,0 +1,250 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.TaggedBody;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookingController.class)
+class BookingControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private BookingService bookingService;
+
+    private static final String USER_ID_REQUEST_HEADER = "X-Sharer-User-Id";
+
+
+    @SneakyThrows
+    @Test
+    void addBookingRequest() {
+        Integer userId = 1;
+        BookingRequestDto bookingRequestDto = BookingRequestDto.builder()
+                .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(1)
+                .build();
+        BookingResponseDto bookingResponseDto = BookingResponseDto.builder()
+                .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(1).status("APPROVED")
+                .build();
+        when(bookingService.add(1, bookingRequestDto)).thenReturn(bookingResponseDto);
+        String result = mockMvc.perform(post("/bookings")
+                        .contentType("application/json")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(bookingRequestDto)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        verify(bookingService, Mockito.times(1)).add(userId, bookingRequestDto);
+        assertEquals(objectMapper.writeValueAsString(bookingResponseDto), result);
+    }
+
+
+    @SneakyThrows
+    @Test
+    void getBookingById() {
+        Integer userId = 1;
+        Integer bookingId = 1;
+        BookingResponseDto bookingResponseDto = BookingResponseDto.builder()
+                .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(1).status("APPROVED")
+                .build();
+        when(bookingService.getTaggedById(userId, bookingId)).thenReturn(new TaggedBody<>(bookingResponseDto, "\"1-0\""));
+        String result = mockMvc.perform(get("/bookings/{bookingId}", bookingId)
+                        .header(USER_ID_REQUEST_HEADER, userId))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        verify(bookingService, Mockito.times(1)).getTaggedById(userId, bookingId);
+        assertEquals(objectMapper.writeValueAsString(bookingResponseDto), result);
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingById_whenIfNoneMatchIsStale_thenReturnBodyWithCurrentTag() {
+        Integer userId = 1;
+        Integer bookingId = 1;
+        BookingResponseDto bookingResponseDto = BookingResponseDto.builder()
+                .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(1).status("APPROVED")
+                .build();
+        when(bookingService.getEntityTag(userId, bookingId)).thenReturn(Optional.of("\"1-0\""));
+        when(bookingService.getTaggedById(userId, bookingId)).thenReturn(new TaggedBody<>(bookingResponseDto, "\"1-0\""));
+        mockMvc.perform(get("/bookings/{bookingId}", bookingId)
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0\""))
+                .andExpect(jsonPath("$.status").value("APPROVED"));
+        verify(bookingService, Mockito.times(1)).getTaggedById(userId, bookingId);
+    }
+
+    @SneakyThrows
+    @Test
+    void getUserBookings() {
+        Integer userId = 1;
+        int from = 0;
+        int size = 2;
+        String state = "ALL";
+        List<BookingResponseDto> bookings = List.of(
+                BookingResponseDto.builder()
+                        .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(1).status("REJECTED")
+                        .build(),
+                BookingResponseDto.builder()
+                        .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(2).status("APPROVED")
+                        .build()
+        );
+        when(bookingService.getAllByBooker(userId, state, from, size)).thenReturn(bookings);
+        mockMvc.perform(get("/bookings")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .param("state", state)
+                        .param("size", Integer.toString(size))
+                        .param("from", Integer.toString(from)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        verify(bookingService, Mockito.times(1)).getAllByBooker(userId, state, from, size);
+    }
+
+    @SneakyThrows
+    @Test
+    void getUserBookings_whenCursorGiven_thenSeekAndReturnNextCursor() {
+        Integer userId = 1;
+        int size = 1;
+        String state = "ALL";
+        BookingResponseDto booking = BookingResponseDto.builder()
+                .id(3).start(LocalDateTime.of(2023, 1, 1, 10, 0)).end(LocalDateTime.of(2023, 1, 2, 10, 0)).itemId(1).status("APPROVED")
+                .build();
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2023, 2, 1, 10, 0), 7);
+        when(bookingService.getAllByBooker(userId, state, cursor, size)).thenReturn(List.of(booking));
+        mockMvc.perform(get("/bookings")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .param("state", state)
+                        .param("size", Integer.toString(size))
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.of(booking).encode()))
+                .andExpect(jsonPath("$.length()").value(1));
+        verify(bookingService, Mockito.times(1)).getAllByBooker(userId, state, cursor, size);
+    }
+
+    @SneakyThrows
+    @Test
+    void getUserBookings_whenCursorInvalid_thenBadRequest() {
+        mockMvc.perform(get("/bookings")
+                        .header(USER_ID_REQUEST_HEADER, 1)
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingsByItemsOwner() {
+        Integer userId = 1;
+        int from = 0;
+        int size = 2;
+        String state = "ALL";
+        List<BookingResponseDto> bookings = List.of(
+                BookingResponseDto.builder()
+                        .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(1).status("REJECTED")
+                        .build(),
+                BookingResponseDto.builder()
+                        .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(2).status("APPROVED")
+                        .build()
+        );
+        when(bookingService.getAllByItemsOwner(userId, state, from, size)).thenReturn(bookings);
+        mockMvc.perform(get("/bookings/owner")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .param("state", state)
+                        .param("size", Integer.toString(size))
+                        .param("from", Integer.toString(from)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        verify(bookingService, Mockito.times(1)).getAllByItemsOwner(userId, state, from, size);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateBookingStatuses() {
+        Integer userId = 1;
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1, true, null), new BookingDecisionDto(2, false, null));
+        BookingResponseDto approvedBooking = BookingResponseDto.builder()
+                .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(1).status("APPROVED")
+                .build();
+        List<BookingDecisionResultDto> results = List.of(
+                new BookingDecisionResultDto(1, approvedBooking, null),
+                new BookingDecisionResultDto(2, null, "Booking with id 2 not found"));
+        when(bookingService.updateBookingStatuses(userId, decisions)).thenReturn(results);
+        mockMvc.perform(patch("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(decisions)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].booking.status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].error").value("Booking with id 2 not found"));
+        verify(bookingService, Mockito.times(1)).updateBookingStatuses(userId, decisions);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateItem() {
+        Integer userId = 1;
+        Integer bookingId = 1;
+        boolean approved = true;
+        BookingResponseDto bookingResponseDto = BookingResponseDto.builder()
+                .id(1).start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(1).status("APPROVED")
+                .build();
+        when(bookingService.updateBookingStatus(userId, bookingId, approved, null)).thenReturn(bookingResponseDto);
+        String result = mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .contentType("application/json")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(bookingResponseDto))
+                        .param("approved", Boolean.toString(approved)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        verify(bookingService, Mockito.times(1)).updateBookingStatus(userId, bookingId, approved, null);
+        assertEquals(objectMapper.writeValueAsString(bookingResponseDto), result);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateItem_whenOverlapConstraintViolated_thenConflict() {
+        when(bookingService.updateBookingStatus(1, 1, true, null)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("conflicting key value violates exclusion constraint \"bookings_approved_no_overlap\"")));
+        mockMvc.perform(patch("/bookings/{bookingId}", 1)
+                        .header(USER_ID_REQUEST_HEADER, 1)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("The item is already booked for this period"));
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingServiceIntegrationTest {
+    private final UserService userService;
+    private final ItemService itemService;
+
+    private final BookingService bookingService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+
+    @Test
+    void getAllByBooker() {
+        UserDto firstUser = userService.add(new UserDto(1, "Mark", "kostrykinmark@gmail.com", null));
+        UserDto secondUser = userService.add(new UserDto(2, "John", "johndoe@gmail.com", null));
+
+
+        ItemRequestDto firstItem = itemService.add(firstUser.getId(), ItemRequestDto
+                .builder().name("Пылесос").description("Пылесос").available(true).build());
+
+        ItemRequestDto secondItem = itemService.add(firstUser.getId(), ItemRequestDto
+                .builder().name("Кофеварка").description("Кофеварка").available(true).build());
+
+        BookingResponseDto firstBooking = bookingService.add(secondUser.getId(), BookingRequestDto
+                .builder()
+                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusMonths(1)).itemId(firstItem.getId())
+                .build());
+        BookingResponseDto secondBooking = bookingService.add(secondUser.getId(), BookingRequestDto
+                .builder()
+                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusMonths(1)).itemId(secondItem.getId())
+                .build());
+
+
+        List<BookingResponseDto> bookings = bookingService.getAllByBooker(secondUser.getId(), "ALL", 0, 2);
+        assertEquals(2, bookings.size());
+        assertEquals(secondItem.getId(), bookings.get(0).getItemId());
+        assertEquals(secondUser.getId(), bookings.get(0).getBooker().getId());
+        assertEquals(firstItem.getId(), bookings.get(1).getItemId());
+        assertEquals(secondUser.getId(), bookings.get(1).getBooker().getId());
+    }
+
+
+    @Test
+    void getAllByBooker_whenFromOrSizeWrong_thenEntityNotFoundException() {
+        assertThrows(EntityNotFoundException.class, () -> bookingService.getAllByBooker(2, "ALL", 0, 3));
+    }
+
+    @Test
+    void exportAllByBooker_thenOneJsonLinePerBookingNewestFirst() throws Exception {
+        UserDto owner = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        UserDto booker = userService.add(new UserDto(null, "John", "johndoe@gmail.com", null));
+        ItemRequestDto item = itemService.add(owner.getId(), ItemRequestDto
+                .builder().name("Пылесос").description("Пылесос").available(true).build());
+        BookingResponseDto earlierBooking = bookingService.add(booker.getId(), BookingRequestDto
+                .builder()
+                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2)).itemId(item.getId())
+                .build());
+        BookingResponseDto laterBooking = bookingService.add(booker.getId(), BookingRequestDto
+                .builder()
+                .start(LocalDateTime.now().plusDays(3)).end(LocalDateTime.now().plusDays(4)).itemId(item.getId())
+                .build());
+        entityManager.flush();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bookingService.exportAllByBooker(booker.getId()).writeTo(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode firstLine = objectMapper.readTree(lines[0]);
+        assertEquals(laterBooking.getId(), firstLine.get("id").asInt());
+        assertEquals(item.getId(), firstLine.get("item").get("id").asInt());
+        assertEquals("Пылесос", firstLine.get("item").get("name").asText());
+        assertEquals(earlierBooking.getId(), objectMapper.readTree(lines[1]).get("id").asInt());
+    }
+
+    @Test
+    void exportAllByBooker_whenUserNotFound_thenEntityNotFoundException() {
+        assertThrows(EntityNotFoundException.class, () -> bookingService.exportAllByBooker(-1));
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.item.dto.CommentPreviewView;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemVersionView;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+@DataJpaTest
+class CommentRepositoryTest {
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @AfterEach
+    void clearRepositories() {
+        commentRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findNewestByItemIds_thenOnlyNewestCommentsPerItemWithTotalCount() {
+        User owner = userRepository.save(new User(null, "Mark", "kostrykinmark@gmail.com", null));
+        User author = userRepository.save(new User(null, "John", "johndoe@gmail.com", null));
+        Item firstItem = itemRepository.save(Item.builder().name("Пылесос").description("Пылесос").owner(owner).available(true).build());
+        Item secondItem = itemRepository.save(Item.builder().name("Кофеварка").description("Кофеварка").owner(owner).available(true).build());
+        Item thirdItem = itemRepository.save(Item.builder().name("Дрель").description("Дрель").owner(owner).available(true).build());
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 5; i++) {
+            commentRepository.save(Comment.builder().text("Пылесос " + i).item(firstItem).author(author).created(created.plusMinutes(i)).build());
+        }
+        commentRepository.save(Comment.builder().text("Отличная кофеварка").item(secondItem).author(author).created(created).build());
+        commentRepository.save(Comment.builder().text("Отличная дрель").item(thirdItem).author(author).created(created).build());
+
+        List<CommentPreviewView> comments = commentRepository.findNewestByItemIds(List.of(firstItem.getId(), secondItem.getId()), 3);
+
+        assertEquals(4, comments.size());
+        assertEquals("Пылесос 4", comments.get(0).getText());
+        assertEquals("Пылесос 2", comments.get(2).getText());
+        assertEquals(5L, comments.get(0).getItemCommentCount());
+        assertEquals(author.getName(), comments.get(0).getAuthorName());
+        assertEquals(secondItem.getId(), comments.get(3).getItemId());
+        assertEquals(1L, comments.get(3).getItemCommentCount());
+    }
+
+    @Test
+    void findOlderByItemId_thenContinueAfterCursorIncludingTies() {
+        User owner = userRepository.save(new User(null, "Mark", "kostrykinmark@gmail.com", null));
+        User author = userRepository.save(new User(null, "John", "johndoe@gmail.com", null));
+        Item item = itemRepository.save(Item.builder().name("Пылесос").description("Пылесос").owner(owner).available(true).build());
+        LocalDateTime created = LocalDateTime.now().minusDays(1).withNano(0);
+        commentRepository.save(Comment.builder().text("Первый").item(item).author(author).created(created).build());
+        commentRepository.save(Comment.builder().text("Второй").item(item).author(author).created(created).build());
+        commentRepository.save(Comment.builder().text("Третий").item(item).author(author).created(created.plusHours(1)).build());
+
+        List<CommentView> firstPage = commentRepository.findNewestByItemId(item.getId(), 2);
+        CommentView lastOnPage = firstPage.get(1);
+        List<CommentView> secondPage = commentRepository.findOlderByItemId(item.getId(), lastOnPage.getCreated(), lastOnPage.getId(), 2);
+
+        assertEquals(List.of("Третий", "Второй"), firstPage.stream().map(CommentView::getText).collect(Collectors.toList()));
+        assertEquals(List.of("Первый"), secondPage.stream().map(CommentView::getText).collect(Collectors.toList()));
+        assertEquals(author.getName(), secondPage.get(0).getAuthorName());
+    }
+
+    @Test
+    void incrementCommentsVersion_whenCommentAdded_thenCommentsVersionChangesWithoutItemVersion() {
+        User owner = userRepository.save(new User(null, "Mark", "kostrykinmark@gmail.com", null));
+        User author = userRepository.save(new User(null, "John", "johndoe@gmail.com", null));
+        Item item = itemRepository.save(Item.builder().name("Пылесос").description("Пылесос").owner(owner).available(true).build());
+        ItemVersionView before = itemRepository.findVersionViewById(item.getId()).orElseThrow();
+
+        commentRepository.save(Comment.builder().text("Отличный пылесос").item(item).author(author).created(LocalDateTime.now()).build());
+        itemRepository.incrementCommentsVersion(item.getId());
+        ItemVersionView after = itemRepository.findVersionViewById(item.getId()).orElseThrow();
+
+        assertEquals(owner.getId(), after.getOwnerId());
+        assertEquals(before.getVersion(), after.getVersion());
+        assertEquals(0, before.getCommentsVersion());
+        assertEquals(1, after.getCommentsVersion());
+    }
+
+    @Test
+    void incrementCommentsVersionByAuthor_whenAuthorRenamed_thenOnlyCommentedItemsChange() {
+        User owner = userRepository.save(new User(null, "Mark", "kostrykinmark@gmail.com", null));
+        User author = userRepository.save(new User(null, "John", "johndoe@gmail.com", null));
+        Item item = itemRepository.save(Item.builder().name("Пылесос").description("Пылесос").owner(owner).available(true).build());
+        Item otherItem = itemRepository.save(Item.builder().name("Дрель").description("Дрель").owner(owner).available(true).build());
+        commentRepository.save(Comment.builder().text("Отличный пылесос").item(item).author(author).created(LocalDateTime.now()).build());
+        commentRepository.flush();
+
+        userRepository.patch(author.getId(), "Johnny", null, null);
+        itemRepository.incrementCommentsVersionByAuthor(author.getId());
+
+        ItemVersionView after = itemRepository.findVersionViewById(item.getId()).orElseThrow();
+        assertEquals(1, after.getCommentsVersion());
+        assertEquals(0, itemRepository.findVersionViewById(otherItem.getId()).orElseThrow().getCommentsVersion());
+    }
+
+}
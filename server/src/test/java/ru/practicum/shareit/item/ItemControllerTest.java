@@ -0,0 +1,285 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.common.TaggedBody;
+import ru.practicum.shareit.item.cache.ItemViewVersion;
+import ru.practicum.shareit.item.dto.CommentCursor;
+import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ItemController.class)
+class ItemControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private ItemService itemService;
+
+    private static final String USER_ID_REQUEST_HEADER = "X-Sharer-User-Id";
+
+    @SneakyThrows
+    @Test
+    void addItem() {
+        Integer userId = 1;
+        ItemRequestDto itemRequestDto = ItemRequestDto
+                .builder().id(1).name("Пылесос").description("Пылесос").available(true).build();
+        when(itemService.add(1, itemRequestDto)).thenReturn(itemRequestDto);
+        mockMvc.perform(post("/items")
+                        .contentType("application/json")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(itemRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(itemRequestDto.getName()))
+                .andExpect(jsonPath("$.description").value(itemRequestDto.getDescription()))
+                .andExpect(jsonPath("$.available").value(itemRequestDto.getAvailable()));
+        verify(itemService, Mockito.times(1)).add(userId, itemRequestDto);
+    }
+
+    @SneakyThrows
+    @Test
+    void addItems() {
+        Integer userId = 1;
+        List<ItemRequestDto> items = List.of(
+                ItemRequestDto.builder().name("Пылесос").description("Пылесос").available(true).build(),
+                ItemRequestDto.builder().name("Кофеварка").description("Кофеварка").available(true).build());
+        when(itemService.addAll(userId, items)).thenReturn(items);
+        mockMvc.perform(post("/items/batch")
+                        .contentType("application/json")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("Кофеварка"));
+        verify(itemService, Mockito.times(1)).addAll(userId, items);
+    }
+
+
+    @SneakyThrows
+    @Test
+    void addComment() {
+        Integer userId = 1;
+        Integer itemId = 1;
+        CommentRequestDto commentRequestDto = CommentRequestDto.builder().text("Очень хороший пылесос").build();
+        CommentResponseDto commentResponseDto = CommentResponseDto
+                .builder().id(1).text("Очень хороший пылесос").authorName("LeatherBastard").created(LocalDateTime.now())
+                .build();
+        when(itemService.addComment(userId, itemId, commentRequestDto)).thenReturn(commentResponseDto);
+        mockMvc.perform(post("/items/{itemId}/comment", itemId)
+                        .contentType("application/json")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(commentRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.text").value(commentResponseDto.getText()))
+                .andExpect(jsonPath("$.authorName").value(commentResponseDto.getAuthorName()));
+        verify(itemService, Mockito.times(1)).addComment(userId, itemId, commentRequestDto);
+    }
+
+
+    @SneakyThrows
+    @Test
+    void getComments_whenPageIsFull_thenNextCursorReturned() {
+        Integer userId = 1;
+        Integer itemId = 1;
+        LocalDateTime created = LocalDateTime.of(2023, 3, 1, 10, 0);
+        List<CommentResponseDto> comments = List.of(
+                CommentResponseDto.builder().id(2).text("Отличный пылесос").authorName("John").created(created.plusHours(1)).build(),
+                CommentResponseDto.builder().id(1).text("Очень хороший пылесос").authorName("Jane").created(created).build());
+        when(itemService.getComments(itemId, null, 2)).thenReturn(comments);
+        mockMvc.perform(get("/items/{itemId}/comments", itemId)
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", new CommentCursor(created, 1).encode()))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].authorName").value("John"));
+        verify(itemService, Mockito.times(1)).getComments(itemId, null, 2);
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllByOwner() {
+        Integer userId = 1;
+        int from = 0;
+        int size = 2;
+        List<ItemResponseDto> itemRequests = List.of(
+                ItemResponseDto
+                        .builder().id(1).name("Пылесос").description("Пылесос").available(true).build(),
+                ItemResponseDto
+                        .builder().id(2).name("Кофеварка").description("Пылесос").available(true).build()
+        );
+        when(itemService.getAllByOwner(userId, from, size)).thenReturn(itemRequests);
+        mockMvc.perform(get("/items")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .param("size", Integer.toString(size))
+                        .param("from", Integer.toString(from)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        verify(itemService, Mockito.times(1)).getAllByOwner(userId, from, size);
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllByText() {
+        Integer userId = 1;
+        int from = 0;
+        int size = 2;
+        String text = "кофеварка";
+        List<ItemRequestDto> itemRequests = List.of(
+                ItemRequestDto
+                        .builder().id(1).name("Пылесос").description("Пылесос").available(true).build(),
+                ItemRequestDto
+                        .builder().id(2).name("Кофеварка").description("Пылесос").available(true).build()
+        );
+        when(itemService.getAllByText(userId, text, from, size)).thenReturn(itemRequests);
+        mockMvc.perform(get("/items/search")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .param("text", text)
+                        .param("size", Integer.toString(size))
+                        .param("from", Integer.toString(from)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        verify(itemService, Mockito.times(1)).getAllByText(userId, text, from, size);
+    }
+
+    @SneakyThrows
+    @Test
+    void exportAllByOwner() {
+        Integer userId = 1;
+        String lines = "{\"id\":1,\"name\":\"Пылесос\"}\n{\"id\":2,\"name\":\"Кофеварка\"}\n";
+        StreamingResponseBody body = outputStream -> outputStream.write(lines.getBytes(StandardCharsets.UTF_8));
+        when(itemService.exportAllByOwner(userId)).thenReturn(body);
+        MvcResult result = mockMvc.perform(get("/items/export")
+                        .header(USER_ID_REQUEST_HEADER, userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().bytes(lines.getBytes(StandardCharsets.UTF_8)));
+        verify(itemService, Mockito.times(1)).exportAllByOwner(userId);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItem() {
+        Integer userId = 1;
+        Integer itemId = 1;
+        ItemResponseDto itemResponseDto = ItemResponseDto
+                .builder().id(1).name("Пылесос").description("Пылесос").available(true).version(2).build();
+        ItemViewVersion version = new ItemViewVersion(2, 2, 0, null, null, null);
+        when(itemService.getViewVersion(itemId)).thenReturn(version);
+        when(itemService.getTaggedById(userId, itemId, version)).thenReturn(new TaggedBody<>(itemResponseDto, "\"2-0\""));
+        mockMvc.perform(get("/items/{id}", itemId)
+                        .header(USER_ID_REQUEST_HEADER, userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-0\""))
+                .andExpect(jsonPath("$.name").value(itemResponseDto.getName()))
+                .andExpect(jsonPath("$.description").value(itemResponseDto.getDescription()))
+                .andExpect(jsonPath("$.available").value(itemResponseDto.getAvailable()));
+        verify(itemService, Mockito.times(1)).getViewVersion(itemId);
+        verify(itemService, Mockito.times(1)).getTaggedById(userId, itemId, version);
+    }
+
+    @SneakyThrows
+    @Test
+    void getItem_whenBodySnapshotIsOlderThanCurrentTag_thenSnapshotTagSent() {
+        Integer userId = 1;
+        Integer itemId = 1;
+        ItemResponseDto itemResponseDto = ItemResponseDto
+                .builder().id(1).name("Пылесос").description("Пылесос").available(true).version(2).build();
+        ItemViewVersion version = new ItemViewVersion(2, 3, 0, null, null, null);
+        when(itemService.getViewVersion(itemId)).thenReturn(version);
+        when(itemService.getTaggedById(userId, itemId, version)).thenReturn(new TaggedBody<>(itemResponseDto, "\"2-0\""));
+        mockMvc.perform(get("/items/{id}", itemId)
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-0\""))
+                .andExpect(jsonPath("$.version").value(2));
+    }
+
+    @SneakyThrows
+    @Test
+    void getItem_whenIfNoneMatchIsCurrent_thenNotModifiedWithoutLoadingView() {
+        Integer userId = 1;
+        Integer itemId = 1;
+        when(itemService.getViewVersion(itemId)).thenReturn(new ItemViewVersion(userId, 2, 1, 5, null, null));
+        mockMvc.perform(get("/items/{id}", itemId)
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-1-5-0\", W/\"2-1-5-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2-1-5-0\""));
+        verify(itemService, Mockito.never()).getTaggedById(anyInt(), anyInt(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void updateItem() {
+        Integer userId = 1;
+        Integer itemId = 1;
+        ItemRequestDto itemRequestDto = ItemRequestDto
+                .builder().id(1).name("Пылесос").description("Пылесос").available(true).build();
+        when(itemService.update(userId, itemId, itemRequestDto, null)).thenReturn(itemRequestDto);
+        mockMvc.perform(patch("/items/{id}", itemId)
+                        .contentType("application/json")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .content(objectMapper.writeValueAsString(itemRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(itemRequestDto.getName()))
+                .andExpect(jsonPath("$.description").value(itemRequestDto.getDescription()))
+                .andExpect(jsonPath("$.available").value(itemRequestDto.getAvailable()));
+        verify(itemService, Mockito.times(1)).update(userId, itemId, itemRequestDto, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateItem_whenIfMatchIsPresent_thenPassExpectedVersion() {
+        Integer userId = 1;
+        Integer itemId = 1;
+        ItemRequestDto itemRequestDto = ItemRequestDto.builder().available(false).build();
+        ItemRequestDto updatedItem = ItemRequestDto
+                .builder().id(1).name("Пылесос").description("Пылесос").available(false).version(3).build();
+        when(itemService.update(userId, itemId, itemRequestDto, 2)).thenReturn(updatedItem);
+        mockMvc.perform(patch("/items/{id}", itemId)
+                        .contentType("application/json")
+                        .header(USER_ID_REQUEST_HEADER, userId)
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .content(objectMapper.writeValueAsString(itemRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        verify(itemService, Mockito.times(1)).update(userId, itemId, itemRequestDto, 2);
+    }
+
+}
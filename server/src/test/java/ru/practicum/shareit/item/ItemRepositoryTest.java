@@ -0,0 +1,109 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@DataJpaTest
+class ItemRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+
+    @AfterEach
+    void clearRepositories() {
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findAllByOwnerFromAndLimit() {
+        User user = new User(null, "Mark", "kostrykinmark@gmail.com", null);
+        User savedUser = userRepository.save(user);
+        assertTrue(userRepository.findById(savedUser.getId()).isPresent());
+        itemRepository.save(
+                Item.builder()
+                        .name("Пылесос")
+                        .description("Пылесос")
+                        .owner(savedUser)
+                        .available(true)
+                        .build());
+
+        itemRepository.save(
+                Item.builder()
+                        .name("коФеВаРка")
+                        .description("КофеВАРка")
+                        .owner(savedUser)
+                        .available(true)
+                        .build());
+        List<Item> items = itemRepository.findAllByOwnerFromAndLimit(savedUser.getId(), 0, 2);
+        assertEquals(2, items.size());
+        assertEquals(savedUser.getId(), (int) items.get(0).getOwner().getId());
+        assertEquals("Пылесос", items.get(0).getName());
+    }
+
+    @Test
+    void findAllGroupedByRequestIds() {
+        User owner = userRepository.save(new User(null, "Mark", "kostrykinmark@gmail.com", null));
+        User requestor = userRepository.save(new User(null, "John", "johndoe@gmail.com", null));
+        ItemRequest firstRequest = itemRequestRepository.save(new ItemRequest(null, "Нужен пылесос", requestor, LocalDateTime.now()));
+        ItemRequest secondRequest = itemRequestRepository.save(new ItemRequest(null, "Нужна кофеварка", requestor, LocalDateTime.now()));
+        ItemRequest thirdRequest = itemRequestRepository.save(new ItemRequest(null, "Нужна дрель", requestor, LocalDateTime.now()));
+        itemRepository.save(Item.builder().name("Пылесос").description("Пылесос").owner(owner).available(true).request(firstRequest).build());
+        itemRepository.save(Item.builder().name("Робот-пылесос").description("Робот-пылесос").owner(owner).available(true).request(firstRequest).build());
+        itemRepository.save(Item.builder().name("Кофеварка").description("Кофеварка").owner(owner).available(true).request(secondRequest).build());
+        itemRepository.save(Item.builder().name("Дрель").description("Дрель").owner(owner).available(true).request(thirdRequest).build());
+
+        Map<Integer, List<Item>> items = itemRepository.findAllGroupedByRequestIds(List.of(firstRequest.getId(), secondRequest.getId()));
+        assertEquals(2, items.size());
+        assertEquals(2, items.get(firstRequest.getId()).size());
+        assertEquals(1, items.get(secondRequest.getId()).size());
+        assertFalse(items.containsKey(thirdRequest.getId()));
+    }
+
+    @Test
+    void patch_whenOwnerAndVersionMatch_thenOnlySuppliedFieldsUpdated() {
+        User owner = userRepository.saveAndFlush(new User(null, "Mark", "kostrykinmark@gmail.com", null));
+        Item item = itemRepository.saveAndFlush(
+                Item.builder().name("Пылесос").description("Пылесос").owner(owner).available(true).build());
+
+        Item patchedItem = itemRepository.patch(item.getId(), owner.getId(), "Кофеварка", null, false, item.getVersion())
+                .orElseThrow();
+
+        assertEquals("Кофеварка", patchedItem.getName());
+        assertEquals("Пылесос", patchedItem.getDescription());
+        assertFalse(patchedItem.getAvailable());
+        assertEquals(item.getVersion() + 1, patchedItem.getVersion());
+        assertEquals(owner.getId(), patchedItem.getOwner().getId());
+    }
+
+    @Test
+    void patch_whenOwnerOrVersionDiffers_thenNothingUpdated() {
+        User owner = userRepository.saveAndFlush(new User(null, "Mark", "kostrykinmark@gmail.com", null));
+        Item item = itemRepository.saveAndFlush(
+                Item.builder().name("Пылесос").description("Пылесос").owner(owner).available(true).build());
+
+        assertTrue(itemRepository.patch(item.getId(), owner.getId() + 1, "Кофеварка", null, null, null).isEmpty());
+        assertTrue(itemRepository.patch(item.getId(), owner.getId(), "Кофеварка", null, null, item.getVersion() + 1).isEmpty());
+    }
+}
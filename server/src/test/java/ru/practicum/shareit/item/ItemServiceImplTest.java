@@ -0,0 +1,536 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.JsonLinesExporter;
+import ru.practicum.shareit.common.TaggedBody;
+import ru.practicum.shareit.exception.BookingForCommentNotFoundException;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.VersionConflictException;
+import ru.practicum.shareit.exception.WrongOwnerOrBookerException;
+import ru.practicum.shareit.item.cache.CachedItemView;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.cache.ItemViewVersion;
+import ru.practicum.shareit.item.dto.CommentCursor;
+import ru.practicum.shareit.item.dto.CommentPreviewView;
+import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.dto.CommentResponseDto;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.dto.ItemVersionView;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+@ExtendWith(MockitoExtension.class)
+public class ItemServiceImplTest {
+
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CommentRepository commentRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private ItemViewCache itemViewCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private JsonLinesExporter exporter;
+
+    private User user;
+    private User anotherUser;
+    private Item item;
+
+    private ItemMapper itemMapper;
+    private BookingMapper bookingMapper;
+
+    @InjectMocks
+    private ItemServiceImpl itemService;
+
+    @Captor
+    ArgumentCaptor<Item> itemArgumentCaptor;
+
+    @BeforeEach
+    void setUp() {
+        itemMapper = new ItemMapper();
+        bookingMapper = new BookingMapper();
+        itemService = new ItemServiceImpl(itemRepository, userRepository, commentRepository, bookingRepository, itemRequestRepository, itemSearchEngine, itemViewCache, eventPublisher, itemMapper, bookingMapper, exporter);
+        user = new User(1, "Mark", "kostrykinmark@gmail.com", null);
+        anotherUser = new User(1, "John", "johndoe@gmail.com", null);
+        item = new Item(1, "Пылесос", "Пылесос", true, user, null, null);
+    }
+
+
+    @Nested
+    class ItemServiceGetAllTests {
+        @Test
+        void getAll() {
+            when(itemRepository.findAll()).thenReturn(List.of(item));
+            List<ItemRequestDto> items = itemService.getAll();
+            assertEquals(1, items.size());
+            assertEquals(item.getId(), items.get(0).getId());
+            assertEquals(item.getName(), items.get(0).getName());
+            assertEquals(item.getDescription(), items.get(0).getDescription());
+            assertEquals(item.getAvailable(), items.get(0).getAvailable());
+        }
+
+    }
+
+    @Nested
+    class ItemServiceGetAllByOwnerTests {
+
+
+        @Test
+        void getAllByOwner_whenUserNotFound_thenEntityNotFoundExceptionThrown() {
+            assertThrows(EntityNotFoundException.class,
+                    () -> itemService.getAllByOwner(1, 1, 1));
+        }
+
+        @Test
+        void getAllByOwner_WhenUserFound_thenReturnItems() {
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(itemRepository.findAllByOwnerFromAndLimit(1, 1, 1)).thenReturn(List.of(item));
+            List<ItemResponseDto> ownerItems = itemService.getAllByOwner(1, 1, 1);
+            verify(itemRepository, Mockito.times(1)).findAllByOwnerFromAndLimit(1, 1, 1);
+            verify(bookingRepository, Mockito.times(1)).findPointedBookingsForItems(List.of(1));
+            verify(commentRepository, Mockito.times(1)).findNewestByItemIds(List.of(1), 10);
+            assertEquals(item.getId(), ownerItems.get(0).getId());
+            assertEquals(item.getName(), ownerItems.get(0).getName());
+            assertEquals(item.getDescription(), ownerItems.get(0).getDescription());
+            assertEquals(item.getAvailable(), ownerItems.get(0).getAvailable());
+        }
+
+        @Test
+        void getAllByOwner_WhenItemsHaveBookingsAndComments_thenAttachThemToEachItem() {
+            Item secondItem = new Item(2, "Кофеварка", "Кофеварка", true, user, null, null);
+            Booking lastBooking = Booking.builder()
+                    .id(1).start(LocalDateTime.now().minusDays(1)).end(LocalDateTime.now().minusHours(2)).item(item).booker(anotherUser).status(BookingStatus.APPROVED)
+                    .build();
+            Booking nextBooking = Booking.builder()
+                    .id(2).start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2)).item(secondItem).booker(anotherUser).status(BookingStatus.APPROVED)
+                    .build();
+            CommentPreviewView comment = Mockito.mock(CommentPreviewView.class);
+            when(comment.getId()).thenReturn(1);
+            when(comment.getText()).thenReturn("Отличная кофеварка");
+            when(comment.getAuthorName()).thenReturn(anotherUser.getName());
+            when(comment.getCreated()).thenReturn(LocalDateTime.now());
+            when(comment.getItemId()).thenReturn(secondItem.getId());
+            when(comment.getItemCommentCount()).thenReturn(25L);
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(itemRepository.findAllByOwnerFromAndLimit(1, 0, 2)).thenReturn(List.of(item, secondItem));
+            when(bookingRepository.findPointedBookingsForItems(List.of(1, 2))).thenReturn(List.of(lastBooking, nextBooking));
+            when(commentRepository.findNewestByItemIds(List.of(1, 2), 10)).thenReturn(List.of(comment));
+            List<ItemResponseDto> ownerItems = itemService.getAllByOwner(1, 0, 2);
+            assertEquals(2, ownerItems.size());
+            assertEquals(bookingMapper.mapToBookingItemView(lastBooking), ownerItems.get(0).getLastBooking());
+            assertNull(ownerItems.get(0).getNextBooking());
+            assertTrue(ownerItems.get(0).getComments().isEmpty());
+            assertEquals(0L, ownerItems.get(0).getCommentCount());
+            assertNull(ownerItems.get(1).getLastBooking());
+            assertEquals(bookingMapper.mapToBookingItemView(nextBooking), ownerItems.get(1).getNextBooking());
+            assertEquals(1, ownerItems.get(1).getComments().size());
+            assertEquals(anotherUser.getName(), ownerItems.get(1).getComments().get(0).getAuthorName());
+            assertEquals(25L, ownerItems.get(1).getCommentCount());
+        }
+    }
+
+
+    @Nested
+    class ItemServiceGetCommentsTests {
+        @Test
+        void getComments_whenItemNotFound_thenEntityNotFoundExceptionThrown() {
+            when(itemRepository.existsById(1)).thenReturn(false);
+            assertThrows(EntityNotFoundException.class, () -> itemService.getComments(1, null, 20));
+            verify(commentRepository, Mockito.never()).findNewestByItemId(anyInt(), anyInt());
+        }
+
+        @Test
+        void getComments_whenCursorGiven_thenContinueAfterCursor() {
+            LocalDateTime created = LocalDateTime.now().minusDays(1);
+            CommentView comment = Mockito.mock(CommentView.class);
+            when(comment.getId()).thenReturn(3);
+            when(comment.getText()).thenReturn("Отличный пылесос");
+            when(comment.getAuthorName()).thenReturn(anotherUser.getName());
+            when(comment.getCreated()).thenReturn(created.minusHours(1));
+            when(itemRepository.existsById(1)).thenReturn(true);
+            when(commentRepository.findOlderByItemId(1, created, 5, 20)).thenReturn(List.of(comment));
+            List<CommentResponseDto> comments = itemService.getComments(1, new CommentCursor(created, 5), 20);
+            verify(commentRepository, Mockito.never()).findNewestByItemId(anyInt(), anyInt());
+            assertEquals(1, comments.size());
+            assertEquals(3, comments.get(0).getId());
+            assertEquals(anotherUser.getName(), comments.get(0).getAuthorName());
+        }
+    }
+
+    @Nested
+    class ItemServiceGetAllByTextTests {
+
+        @Test
+        void getAllByText_WhenUserFound_thenReturnItems() {
+            when(itemSearchEngine.search("пЫлеСос", 1, 1)).thenReturn(List.of(1));
+            when(itemRepository.findAllById(List.of(1))).thenReturn(List.of(item));
+            List<ItemRequestDto> itemsByText = itemService.getAllByText(1, "пЫлеСос", 1, 1);
+            verify(itemSearchEngine, Mockito.times(1)).search("пЫлеСос", 1, 1);
+            assertEquals(item.getId(), itemsByText.get(0).getId());
+            assertEquals(item.getName(), itemsByText.get(0).getName());
+            assertEquals(item.getDescription(), itemsByText.get(0).getDescription());
+        }
+
+        @Test
+        void getAllByText_whenNothingFound_thenRepositoryNotQueried() {
+            when(itemSearchEngine.search("дрель", 0, 10)).thenReturn(List.of());
+            assertTrue(itemService.getAllByText(1, "дрель", 0, 10).isEmpty());
+            verify(itemRepository, Mockito.never()).findAllById(any());
+        }
+
+    }
+
+    @Nested
+    class ItemServiceGetByIdTests {
+        @Test
+        void getById_whenItemNotFound_thenEntityNotFoundExceptionThrown() {
+            when(itemRepository.findVersionViewById(1)).thenReturn(Optional.empty());
+            assertThrows(EntityNotFoundException.class, () -> itemService.getById(1, 1));
+            verify(bookingRepository, Mockito.never()).findPointedBookingsForItems(anyList());
+            verify(commentRepository, Mockito.never()).findNewestByItemIds(anyList(), anyInt());
+        }
+
+        @Test
+        void getAllById_WhenItemFound_thenReturnItem() {
+            ItemVersionView view = versionView(0);
+            when(itemRepository.findVersionViewById(1)).thenReturn(Optional.of(view));
+            when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+            Booking firstBooking = Booking
+                    .builder()
+                    .start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(2)).item(item).booker(anotherUser).status(BookingStatus.APPROVED)
+                    .build();
+            Booking secondBooking = Booking.builder()
+                    .start(LocalDateTime.now().minusDays(1)).end(LocalDateTime.now().minusHours(2)).item(item).booker(anotherUser).status(BookingStatus.APPROVED)
+                    .build();
+            when(bookingRepository.findPointedBookingsForItems(List.of(1))).thenReturn(List.of(firstBooking, secondBooking));
+            ItemResponseDto foundItem = itemService.getById(1, 1);
+            verify(itemRepository, Mockito.times(1)).findById(1);
+            verify(bookingRepository, Mockito.times(1)).findPointedBookingsForItems(List.of(1));
+            verify(commentRepository, Mockito.times(1)).findNewestByItemIds(List.of(1), 10);
+            verify(itemViewCache, Mockito.times(1)).put(eq(1), any(CachedItemView.class));
+            assertEquals(item.getId(), foundItem.getId());
+            assertEquals(item.getName(), foundItem.getName());
+            assertEquals(item.getDescription(), foundItem.getDescription());
+            assertEquals(item.getAvailable(), foundItem.getAvailable());
+            assertEquals(bookingMapper.mapToBookingItemView(secondBooking), foundItem.getLastBooking());
+            assertEquals(bookingMapper.mapToBookingItemView(firstBooking), foundItem.getNextBooking());
+        }
+
+        @Test
+        void getById_whenNextBookingStartedBeforeRoll_thenShownAsLastBooking() {
+            ItemVersionView view = versionView(0);
+            when(itemRepository.findVersionViewById(1)).thenReturn(Optional.of(view));
+            when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+            Booking previousBooking = Booking.builder()
+                    .id(1).start(LocalDateTime.now().minusDays(2)).end(LocalDateTime.now().minusDays(1)).item(item).booker(anotherUser).status(BookingStatus.APPROVED)
+                    .build();
+            Booking startedBooking = Booking.builder()
+                    .id(2).start(LocalDateTime.now().minusMinutes(1)).end(LocalDateTime.now().plusDays(1)).item(item).booker(anotherUser).status(BookingStatus.APPROVED)
+                    .build();
+            when(bookingRepository.findPointedBookingsForItems(List.of(1))).thenReturn(List.of(previousBooking, startedBooking));
+            ItemResponseDto foundItem = itemService.getById(1, 1);
+            assertEquals(bookingMapper.mapToBookingItemView(startedBooking), foundItem.getLastBooking());
+            assertNull(foundItem.getNextBooking());
+        }
+
+        @Test
+        void getViewVersion_whenNextBookingStarted_thenOwnerTagMatchesRolledView() {
+            ItemVersionView view = Mockito.mock(ItemVersionView.class);
+            when(view.getVersion()).thenReturn(3);
+            when(view.getOwnerId()).thenReturn(1);
+            when(view.getCommentsVersion()).thenReturn(2);
+            when(view.getLastBookingId()).thenReturn(4);
+            when(view.getNextBookingId()).thenReturn(5);
+            when(view.getNextBookingStart()).thenReturn(LocalDateTime.now().minusMinutes(1));
+            when(itemRepository.findVersionViewById(1)).thenReturn(Optional.of(view));
+            ItemViewVersion version = itemService.getViewVersion(1);
+            assertEquals("\"3-2-5-0\"", version.tagFor(1, LocalDateTime.now()));
+            assertEquals("\"3-2\"", version.tagFor(2, LocalDateTime.now()));
+            verify(itemViewCache, Mockito.never()).get(anyInt());
+        }
+
+        @Test
+        void getById_whenViewCached_thenRepositoriesNotQueried() {
+            ItemResponseDto itemView = ItemResponseDto.builder()
+                    .id(1).name("Пылесос").description("Пылесос").available(true)
+                    .lastBooking(bookingMapper.mapToBookingItemView(new Booking(1, LocalDateTime.now().minusDays(1),
+                            LocalDateTime.now().minusHours(2), item, anotherUser, user.getId(), BookingStatus.APPROVED, null)))
+                    .comments(List.of())
+                    .build();
+            ItemVersionView view = versionView(0);
+            CachedItemView cachedView = new CachedItemView(1, itemView, null, ItemViewVersion.of(view));
+            when(itemRepository.findVersionViewById(1)).thenReturn(Optional.of(view));
+            when(itemViewCache.get(1)).thenReturn(cachedView);
+            ItemResponseDto ownerView = itemService.getById(1, 1);
+            ItemResponseDto otherUserView = itemService.getById(2, 1);
+            verify(itemRepository, Mockito.never()).findById(anyInt());
+            verify(bookingRepository, Mockito.never()).findPointedBookingsForItems(anyList());
+            verify(commentRepository, Mockito.never()).findNewestByItemIds(anyList(), anyInt());
+            assertEquals(itemView.getLastBooking(), ownerView.getLastBooking());
+            assertNull(otherUserView.getLastBooking());
+            assertEquals(itemView.getName(), otherUserView.getName());
+        }
+
+        @Test
+        void getById_whenCachedViewIsOlderThanItem_thenViewReloaded() {
+            ItemResponseDto staleView = ItemResponseDto.builder()
+                    .id(1).name("Старый пылесос").description("Пылесос").available(true).comments(List.of())
+                    .build();
+            CachedItemView cachedView = new CachedItemView(1, staleView, null, ItemViewVersion.of(versionView(0)));
+            ItemVersionView view = versionView(1);
+            when(itemViewCache.get(1)).thenReturn(cachedView);
+            when(itemRepository.findVersionViewById(1)).thenReturn(Optional.of(view));
+            when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+            TaggedBody<ItemResponseDto> foundItem = itemService.getTaggedById(2, 1, itemService.getViewVersion(1));
+            verify(itemRepository, Mockito.times(1)).findVersionViewById(1);
+            verify(itemRepository, Mockito.times(1)).findById(1);
+            verify(itemViewCache, Mockito.times(1)).put(eq(1), any(CachedItemView.class));
+            assertEquals(item.getName(), foundItem.getBody().getName());
+            assertEquals("\"1-0\"", foundItem.getTag());
+        }
+
+        private ItemVersionView versionView(int version) {
+            ItemVersionView view = Mockito.mock(ItemVersionView.class);
+            when(view.getOwnerId()).thenReturn(1);
+            when(view.getVersion()).thenReturn(version);
+            when(view.getCommentsVersion()).thenReturn(0);
+            when(view.getLastBookingId()).thenReturn(null);
+            when(view.getNextBookingId()).thenReturn(null);
+            return view;
+        }
+    }
+
+    @Nested
+    class ItemServiceAddTests {
+
+        @Test
+        void add_whenUserNotFound_thenEntityNotFoundExceptionThrown() {
+            ItemRequest itemRequest = new ItemRequest(1, "Нужен пылесос", anotherUser, LocalDateTime.now());
+            ItemRequestDto itemRequestDto = ItemRequestDto
+                    .builder()
+                    .id(1).name("Пылесос").description("Пылесос").available(true).requestId(itemRequest.getId())
+                    .build();
+            when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+            assertThrows(EntityNotFoundException.class, () -> itemService.add(1, itemRequestDto));
+            verify(itemRepository, Mockito.never()).save(any(Item.class));
+        }
+
+        @Test
+        void add_whenItemRequestNotFound_thenEntityNotFoundExceptionThrown() {
+            ItemRequest itemRequest = new ItemRequest(1, "Нужен пылесос", anotherUser, LocalDateTime.now());
+            ItemRequestDto itemRequestDto = ItemRequestDto
+                    .builder()
+                    .id(1).name("Пылесос").description("Пылесос").available(true).requestId(itemRequest.getId())
+                    .build();
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(itemRequestRepository.findById(1)).thenReturn(Optional.empty());
+            assertThrows(EntityNotFoundException.class, () -> itemService.add(1, itemRequestDto));
+            verify(itemRepository, Mockito.never()).save(any(Item.class));
+        }
+
+        @Test
+        void add_whenAllIsValid_thenAddAndReturnItem() {
+            ItemRequest itemRequest = new ItemRequest(1, "Нужен пылесос", anotherUser, LocalDateTime.now());
+            ItemRequestDto itemRequestDto = ItemRequestDto
+                    .builder()
+                    .id(1).name("Пылесос").description("Пылесос").available(true).requestId(itemRequest.getId())
+                    .build();
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(itemRequestRepository.findById(1)).thenReturn(Optional.of(itemRequest));
+            item.setRequest(itemRequest);
+            when(itemRepository.save(any(Item.class))).thenReturn(item);
+            ItemRequestDto addedItem = itemService.add(1, itemRequestDto);
+            verify(itemRepository, Mockito.times(1)).save(any(Item.class));
+            verify(itemSearchEngine, Mockito.times(1)).index(item);
+            assertEquals(itemRequestDto, addedItem);
+        }
+
+        @Test
+        void addAll_whenItemRequestNotFound_thenEntityNotFoundExceptionThrown() {
+            ItemRequestDto itemRequestDto = ItemRequestDto.builder()
+                    .name("Пылесос").description("Пылесос").available(true).requestId(1)
+                    .build();
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(itemRequestRepository.findAllById(Set.of(1))).thenReturn(List.of());
+            assertThrows(EntityNotFoundException.class, () -> itemService.addAll(1, List.of(itemRequestDto)));
+            verify(itemRepository, Mockito.never()).saveAll(anyList());
+        }
+
+        @Test
+        void addAll_whenAllIsValid_thenSaveItemsInOneCall() {
+            ItemRequest itemRequest = new ItemRequest(1, "Нужен пылесос", anotherUser, LocalDateTime.now());
+            List<ItemRequestDto> itemRequestDtos = List.of(
+                    ItemRequestDto.builder().name("Пылесос").description("Пылесос").available(true).requestId(1).build(),
+                    ItemRequestDto.builder().name("Кофеварка").description("Кофеварка").available(true).build());
+            Item secondItem = new Item(2, "Кофеварка", "Кофеварка", true, user, null, null);
+            item.setRequest(itemRequest);
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(itemRequestRepository.findAllById(Set.of(1))).thenReturn(List.of(itemRequest));
+            when(itemRepository.saveAll(anyList())).thenReturn(List.of(item, secondItem));
+            List<ItemRequestDto> addedItems = itemService.addAll(1, itemRequestDtos);
+            verify(itemRepository, Mockito.never()).save(any(Item.class));
+            verify(itemRequestRepository, Mockito.never()).findById(anyInt());
+            verify(itemSearchEngine, Mockito.times(2)).index(any(Item.class));
+            assertEquals(2, addedItems.size());
+            assertEquals(1, addedItems.get(0).getRequestId());
+            assertEquals(secondItem.getId(), addedItems.get(1).getId());
+        }
+
+    }
+
+    @Nested
+    class ItemServiceAddCommentTests {
+        @Test
+        void addComment_whenUserNotFound_thenEntityNotFoundExceptionThrown() {
+            CommentRequestDto commentRequestDto = CommentRequestDto.builder()
+                    .text("Пылесос оказался как раз вовремя, спасибо").build();
+
+            when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+            assertThrows(EntityNotFoundException.class, () -> itemService.addComment(1, 1, commentRequestDto));
+            verify(commentRepository, Mockito.never()).save(any(Comment.class));
+        }
+
+        @Test
+        void addComment_whenItemNotFound_thenEntityNotFoundExceptionThrown() {
+            CommentRequestDto commentRequestDto = CommentRequestDto.builder()
+                    .text("Пылесос оказался как раз вовремя, спасибо").build();
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(itemRepository.findById(1)).thenReturn(Optional.empty());
+            assertThrows(EntityNotFoundException.class, () -> itemService.addComment(1, 1, commentRequestDto));
+            verify(commentRepository, Mockito.never()).save(any(Comment.class));
+        }
+
+        @Test
+        void addComment_whenBookingNotFound_thenBookingForCommentNotFoundExceptionThrown() {
+            CommentRequestDto commentRequestDto = CommentRequestDto.builder()
+                    .text("Пылесос оказался как раз вовремя, спасибо").build();
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+            when(bookingRepository
+                    .findAllByBooker_IdAndItem_IdAndStatusAndEndIsBefore(any(Integer.class), any(Integer.class), any(BookingStatus.class), any(LocalDateTime.class)))
+                    .thenReturn(List.of());
+            assertThrows(BookingForCommentNotFoundException.class, () -> itemService.addComment(1, 1, commentRequestDto));
+            verify(commentRepository, Mockito.never()).save(any(Comment.class));
+        }
+
+        @Test
+        void addComment_whenAllIsValid_thenAddAndReturnComment() {
+            CommentRequestDto commentRequestDto = CommentRequestDto.builder()
+                    .text("Пылесос оказался как раз вовремя, спасибо").build();
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+            Booking booking = new Booking(1, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, user.getId(), BookingStatus.WAITING, null);
+            when(bookingRepository
+                    .findAllByBooker_IdAndItem_IdAndStatusAndEndIsBefore(any(Integer.class), any(Integer.class), any(BookingStatus.class), any(LocalDateTime.class)))
+                    .thenReturn(List.of(booking));
+            when(commentRepository.save(any(Comment.class))).thenReturn(
+                    new Comment(1, commentRequestDto.getText(), item, user, LocalDateTime.now()));
+            CommentResponseDto savedComment = itemService.addComment(1, 1, commentRequestDto);
+            verify(commentRepository, Mockito.times(1)).save(any(Comment.class));
+            verify(itemRepository, Mockito.times(1)).incrementCommentsVersion(1);
+            verify(eventPublisher, Mockito.times(1)).publishEvent(any(ItemChangedEvent.class));
+            assertEquals(1, savedComment.getId());
+            assertEquals(commentRequestDto.getText(), savedComment.getText());
+            assertEquals(user.getName(), savedComment.getAuthorName());
+        }
+
+    }
+
+    @Nested
+    class ItemServiceUpdateTests {
+        @Test
+        void update_whenUserNotFound_thenEntityNotFoundExceptionThrown() {
+            ItemRequest itemRequest = new ItemRequest(1, "Нужен пылесос", anotherUser, LocalDateTime.now());
+            ItemRequestDto itemRequestDto = ItemRequestDto
+                    .builder()
+                    .id(1).name("Пылесос").description("Пылесос").available(true).requestId(itemRequest.getId())
+                    .build();
+
+            when(itemRepository.findById(anyInt())).thenReturn(Optional.empty());
+            assertThrows(EntityNotFoundException.class, () -> itemService.update(1, 1, itemRequestDto, null));
+            verify(itemRepository, Mockito.never()).save(any(Item.class));
+        }
+
+        @Test
+        void update_whenUserIdNotEqualsItemOwnerId_thenWrongOwnerOrBookerExceptionThrown() {
+            ItemRequest itemRequest = new ItemRequest(1, "Нужен пылесос", user, LocalDateTime.now());
+            ItemRequestDto itemRequestDto = ItemRequestDto
+                    .builder()
+                    .id(1).name("Пылесос").description("Пылесос").available(true).requestId(itemRequest.getId())
+                    .build();
+
+            when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+            assertThrows(WrongOwnerOrBookerException.class, () -> itemService.update(2, 1, itemRequestDto, null));
+        }
+
+        @Test
+        void update_whenItemIsFound_thenPatchOnlySuppliedFields() {
+            Item updatedItem = new Item(1, "Кофеварка", "Пылесос", false, user, null, 1);
+            when(itemRepository.patch(1, 1, "Кофеварка", null, false, null)).thenReturn(Optional.of(updatedItem));
+            ItemRequestDto result = itemService.update(1, 1, ItemRequestDto.builder().name("Кофеварка").available(false).build(), null);
+            verify(itemRepository, Mockito.never()).findById(anyInt());
+            verify(itemRepository, Mockito.never()).save(any(Item.class));
+            verify(itemSearchEngine, Mockito.times(1)).index(updatedItem);
+            verify(eventPublisher, Mockito.times(1)).publishEvent(any(ItemChangedEvent.class));
+            assertEquals(itemMapper.mapToItemDto(updatedItem), result);
+        }
+
+        @Test
+        void update_whenExpectedVersionDiffers_thenVersionConflictExceptionThrown() {
+            item.setVersion(5);
+            when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+            assertThrows(VersionConflictException.class,
+                    () -> itemService.update(1, 1, ItemRequestDto.builder().name("Кофеварка").build(), 4));
+            verify(itemRepository, Mockito.never()).save(any(Item.class));
+            verify(eventPublisher, Mockito.never()).publishEvent(any(ItemChangedEvent.class));
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemServiceIntegrationTest {
+    private final ItemService itemService;
+    private final UserService userService;
+    private final BookingService bookingService;
+
+    @Test
+    void getAllByOwner() {
+        UserDto userDto = new UserDto(1, "Mark", "kostrykinmark@gmail.com", null);
+        ItemRequestDto firstItem = ItemRequestDto
+                .builder().id(1).name("Пылесос").description("Пылесос").available(true).build();
+        ItemRequestDto secondItem = ItemRequestDto
+                .builder().id(2).name("Кофеварка").description("Кофеварка").available(false).build();
+        UserDto savedUser = userService.add(userDto);
+        ItemRequestDto savedFirstItem = itemService.add(savedUser.getId(), firstItem);
+        ItemRequestDto savedSecondItem = itemService.add(savedUser.getId(), secondItem);
+
+        List<ItemResponseDto> items = itemService.getAllByOwner(savedUser.getId(), 0, 3);
+        assertEquals(2, items.size());
+        assertEquals(savedFirstItem.getId(), items.get(0).getId());
+        assertEquals(savedFirstItem.getName(), items.get(0).getName());
+        assertEquals(savedFirstItem.getDescription(), items.get(0).getDescription());
+        assertEquals(savedFirstItem.getAvailable(), items.get(0).getAvailable());
+
+        assertEquals(savedSecondItem.getId(), items.get(1).getId());
+        assertEquals(savedSecondItem.getName(), items.get(1).getName());
+        assertEquals(savedSecondItem.getDescription(), items.get(1).getDescription());
+        assertEquals(savedSecondItem.getAvailable(), items.get(1).getAvailable());
+    }
+
+    @Test
+    void getById_whenNextBookerRemoved_thenNextApprovedBookingShownToOwner() {
+        UserDto owner = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        UserDto removedBooker = userService.add(new UserDto(null, "John", "johndoe@gmail.com", null));
+        UserDto booker = userService.add(new UserDto(null, "Jane", "janedoe@gmail.com", null));
+        ItemRequestDto item = itemService.add(owner.getId(), ItemRequestDto
+                .builder().name("Пылесос").description("Пылесос").available(true).build());
+        LocalDateTime now = LocalDateTime.now();
+        BookingResponseDto removedBooking = bookingService.add(removedBooker.getId(), BookingRequestDto.builder()
+                .start(now.plusDays(1)).end(now.plusDays(2)).itemId(item.getId()).build());
+        BookingResponseDto nextBooking = bookingService.add(booker.getId(), BookingRequestDto.builder()
+                .start(now.plusDays(3)).end(now.plusDays(4)).itemId(item.getId()).build());
+        bookingService.updateBookingStatus(owner.getId(), removedBooking.getId(), true, null);
+        bookingService.updateBookingStatus(owner.getId(), nextBooking.getId(), true, null);
+        assertEquals(removedBooking.getId(), itemService.getById(owner.getId(), item.getId()).getNextBooking().getId());
+
+        userService.remove(removedBooker.getId());
+
+        ItemResponseDto itemView = itemService.getById(owner.getId(), item.getId());
+        assertEquals(nextBooking.getId(), itemView.getNextBooking().getId());
+        assertNull(itemView.getLastBooking());
+    }
+
+    @Test
+    void getAllByOwner_whenUserNotFound_thenEntityNotFoundException() {
+        assertThrows(EntityNotFoundException.class, () -> itemService.getAllByOwner(1, 0, 3));
+    }
+}
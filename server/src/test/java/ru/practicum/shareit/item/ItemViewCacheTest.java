@@ -0,0 +1,138 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.cache.CachedItemView;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.cache.ItemViewExpiry;
+import ru.practicum.shareit.item.cache.ItemViewVersion;
+import ru.practicum.shareit.item.dto.ItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static ru.practicum.shareit.config.CacheConfig.ITEM_VIEWS_CACHE;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemViewCacheTest {
+
+    private final ItemService itemService;
+    private final UserService userService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    @SpyBean
+    private ItemViewCache itemViewCache;
+
+    @AfterEach
+    void clear() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        cacheManager.getCache(ITEM_VIEWS_CACHE).clear();
+    }
+
+    @Test
+    void getById_whenItemExists_thenViewCached() {
+        UserDto owner = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        ItemRequestDto item = itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Пылесос").description("Пылесос").available(true).build());
+        assertNull(cacheManager.getCache(ITEM_VIEWS_CACHE).get(item.getId()));
+
+        itemService.getById(owner.getId(), item.getId());
+
+        assertNotNull(cacheManager.getCache(ITEM_VIEWS_CACHE).get(item.getId()));
+    }
+
+    @Test
+    void update_whenViewCached_thenEntryEvicted() {
+        UserDto owner = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        ItemRequestDto item = itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Пылесос").description("Пылесос").available(true).build());
+        itemService.getById(owner.getId(), item.getId());
+
+        itemService.update(owner.getId(), item.getId(), ItemRequestDto.builder().name("Робот-пылесос").build(), null);
+
+        assertNull(cacheManager.getCache(ITEM_VIEWS_CACHE).get(item.getId()));
+        assertEquals("Робот-пылесос", itemService.getById(owner.getId(), item.getId()).getName());
+    }
+
+    @Test
+    void getById_whenReaderPutsAfterConcurrentUpdate_thenStaleViewReplaced() throws Exception {
+        UserDto owner = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        ItemRequestDto item = itemService.add(owner.getId(), ItemRequestDto.builder()
+                .name("Пылесос").description("Пылесос").available(true).build());
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            loaded.countDown();
+            assertTrue(updated.await(5, TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(itemViewCache).put(eq(item.getId()), any(CachedItemView.class));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ItemResponseDto> reader = executor.submit(() -> itemService.getById(owner.getId(), item.getId()));
+            assertTrue(loaded.await(5, TimeUnit.SECONDS));
+            itemService.update(owner.getId(), item.getId(), ItemRequestDto.builder().name("Робот-пылесос").build(), null);
+            updated.countDown();
+            assertEquals("Пылесос", reader.get(5, TimeUnit.SECONDS).getName());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("Пылесос", cachedView(item.getId()).viewFor(owner.getId()).getName());
+
+        assertEquals("Робот-пылесос", itemService.getById(owner.getId(), item.getId()).getName());
+
+        CachedItemView current = cachedView(item.getId());
+        assertEquals("Робот-пылесос", current.viewFor(owner.getId()).getName());
+        itemViewCache.put(item.getId(), new CachedItemView(owner.getId(), ItemResponseDto.builder().id(item.getId()).build(), null,
+                new ItemViewVersion(owner.getId(), current.getVersion().getVersion() - 1, 0, null, null, null)));
+        assertSame(current, cachedView(item.getId()));
+    }
+
+    @Test
+    void expireAfterCreate_whenNextBookingStartsBeforeTtl_thenExpiresAtNextBookingStart() {
+        ItemViewExpiry expiry = new ItemViewExpiry(Duration.ofMinutes(10));
+        ItemResponseDto view = ItemResponseDto.builder().id(1).build();
+
+        long withoutNextBooking = expiry.expireAfterCreate(1, new CachedItemView(1, view, null, null), 0);
+        long withNextBooking = expiry.expireAfterCreate(1, new CachedItemView(1, view, LocalDateTime.now().plusMinutes(1), null), 0);
+        long withStartedBooking = expiry.expireAfterCreate(1, new CachedItemView(1, view, LocalDateTime.now().minusMinutes(1), null), 0);
+
+        assertEquals(TimeUnit.MINUTES.toNanos(10), withoutNextBooking);
+        assertTrue(withNextBooking <= TimeUnit.MINUTES.toNanos(1));
+        assertEquals(0, withStartedBooking);
+    }
+
+    private CachedItemView cachedView(int itemId) {
+        return cacheManager.getCache(ITEM_VIEWS_CACHE).get(itemId, CachedItemView.class);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareit.config.SecondLevelCacheConfig.USERS_REGION;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UserCacheTest {
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
+    private final BookingService bookingService;
+    private final MeterRegistry meterRegistry;
+
+    @AfterEach
+    void clear() {
+        userRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void findById_whenUserExists_thenServedFromSecondLevelCache() {
+        UserDto savedUser = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        entityManagerFactory.getCache().evictAll();
+        userService.getById(savedUser.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userService.getById(savedUser.getId());
+
+        assertEquals(1, statistics.getDomainDataRegionStatistics(USERS_REGION).getHitCount());
+        assertFalse(cacheManager.getCacheNames().contains("users"));
+    }
+
+    @Test
+    void findById_whenUserCached_thenRegionMetricsPublished() {
+        UserDto savedUser = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        userService.getById(savedUser.getId());
+
+        userService.getById(savedUser.getId());
+
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", USERS_REGION).tag("result", "hit")
+                .functionCounter().count() > 0);
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", USERS_REGION).functionCounter());
+    }
+
+    @Test
+    void export_whenUserCached_thenExistenceCheckServedFromSecondLevelCache() {
+        UserDto savedUser = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        userService.getById(savedUser.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bookingService.exportAllByBooker(savedUser.getId());
+
+        assertEquals(1, statistics.getDomainDataRegionStatistics(USERS_REGION).getHitCount());
+    }
+
+    @Test
+    void findById_whenUserMissing_thenNothingCached() {
+        assertTrue(userRepository.findById(Integer.MAX_VALUE).isEmpty());
+        assertFalse(entityManagerFactory.getCache().contains(User.class, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void update_whenUserCached_thenEntryEvicted() {
+        UserDto savedUser = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        userService.getById(savedUser.getId());
+
+        userService.update(savedUser.getId(), new UserDto(null, "John", null, null), null);
+
+        assertFalse(entityManagerFactory.getCache().contains(User.class, savedUser.getId()));
+        assertEquals("John", userService.getById(savedUser.getId()).getName());
+    }
+
+    @Test
+    void remove_whenUserCached_thenEntryEvicted() {
+        UserDto savedUser = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        userService.getById(savedUser.getId());
+
+        userService.remove(savedUser.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertTrue(userRepository.findById(savedUser.getId()).isEmpty());
+        assertEquals(0, statistics.getDomainDataRegionStatistics(USERS_REGION).getHitCount());
+    }
+}
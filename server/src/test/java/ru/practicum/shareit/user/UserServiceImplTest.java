@@ -0,0 +1,191 @@
+package ru.practicum.shareit.user;
+
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.exception.VersionConflictException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.event.UserRemovedEvent;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceImplTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private UserMapper mapper;
+
+    @InjectMocks
+    private UserServiceImpl userService;
+
+    @Captor
+    private ArgumentCaptor<User> userArgumentCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<User>> userListArgumentCaptor;
+
+
+    @BeforeEach
+    void setUp() {
+        mapper = new UserMapper();
+        userService = new UserServiceImpl(userRepository, itemRepository, itemRequestRepository, mapper, eventPublisher);
+    }
+
+
+    @Nested
+    class UserServiceAddTests {
+        @Test
+        void add_whenUserIsValid_thenReturnUser() {
+            User expectedUser = User.builder().id(1).name("Mark").email("kostrykinmark@gmail.com").build();
+            when(userRepository.save(any(User.class))).thenReturn(expectedUser);
+            assertEquals(mapper.mapToUserDto(expectedUser), userService.add(mapper.mapToUserDto(expectedUser)));
+        }
+
+        @Test
+        void addAll_whenUsersAreValid_thenSaveNewUsersInOneCall() {
+            List<User> expectedUsers = List.of(
+                    User.builder().id(1).name("Mark").email("kostrykinmark@gmail.com").build(),
+                    User.builder().id(2).name("John").email("johndoe@gmail.com").build());
+            when(userRepository.saveAll(anyList())).thenReturn(expectedUsers);
+            List<UserDto> users = List.of(new UserDto(7, "Mark", "kostrykinmark@gmail.com", null), new UserDto(null, "John", "johndoe@gmail.com", null));
+            assertEquals(expectedUsers.stream().map(mapper::mapToUserDto).collect(Collectors.toList()), userService.addAll(users));
+            verify(userRepository).saveAll(userListArgumentCaptor.capture());
+            assertTrue(userListArgumentCaptor.getValue().stream().allMatch(user -> user.getId() == null));
+        }
+    }
+
+    @Nested
+    class UserServiceGetAllTests {
+        @Test
+        void getAll_whenThereAreUsers_thenReturnUsers() {
+            User firstUser = User.builder().id(1).name("Mark").email("kostrykinmark@gmail.com").build();
+            User secondUser = User.builder().id(2).name("John").email("johndoe@gmail.com").build();
+            List<User> expectedUsers = List.of(firstUser, secondUser);
+            when(userRepository.findAll()).thenReturn(expectedUsers);
+            List<UserDto> expectedDtoUsers = expectedUsers.stream().map(mapper::mapToUserDto).collect(Collectors.toList());
+            assertEquals(expectedDtoUsers, userService.getAll());
+        }
+    }
+
+    @Nested
+    class UserServiceGetByIdTests {
+        @Test
+        void getById_whenThereIsUser_thenReturnUser() {
+            User expectedUser = User.builder().id(1).name("Mark").email("kostrykinmark@gmail.com").build();
+            when(userRepository.findById(expectedUser.getId())).thenReturn(Optional.of(expectedUser));
+            User actualUser = mapper.mapToUser(userService.getById(expectedUser.getId()));
+            assertEquals(expectedUser, actualUser);
+        }
+
+        @Test
+        void getById_whenUserNotFound_thenEntityNotFoundExceptionThrown() {
+            when(userRepository.findById(1)).thenReturn(Optional.empty());
+            assertThrows(EntityNotFoundException.class, () -> userService.getById(1));
+        }
+    }
+
+
+    @Nested
+    class UserServiceUpdateTests {
+        @Test
+        void update_whenUserIsFound_thenPatchOnlySuppliedFields() {
+            User updatedUser = User.builder().id(1).name("John").email("kostrykinmark@gmail.com").version(1).build();
+            when(userRepository.patch(1, "John", null, null)).thenReturn(Optional.of(updatedUser));
+            UserDto result = userService.update(1, new UserDto(null, "John", null, null), null);
+            assertEquals(mapper.mapToUserDto(updatedUser), result);
+            verify(userRepository, Mockito.never()).findById(anyInt());
+            verify(userRepository, Mockito.never()).save(any(User.class));
+            verify(itemRepository, Mockito.times(1)).incrementCommentsVersionByAuthor(1);
+        }
+
+        @Test
+        void update_whenUserIsNotFound_thenEntityNotFoundExceptionThrown() {
+            when(userRepository.patch(1, "Mark", "kostrykinmark@gmail.com", null)).thenReturn(Optional.empty());
+            assertThrows(EntityNotFoundException.class,
+                    () -> userService.update(1, new UserDto(null, "Mark", "kostrykinmark@gmail.com", null), null));
+        }
+
+        @Test
+        void update_whenExpectedVersionDiffers_thenVersionConflictExceptionThrown() {
+            when(userRepository.patch(1, "John", null, 1)).thenReturn(Optional.empty());
+            when(userRepository.existsById(1)).thenReturn(true);
+            assertThrows(VersionConflictException.class,
+                    () -> userService.update(1, new UserDto(null, "John", null, null), 1));
+        }
+
+        @Test
+        void update_whenExpectedVersionGivenForMissingUser_thenEntityNotFoundExceptionThrown() {
+            when(userRepository.patch(1, "John", null, 1)).thenReturn(Optional.empty());
+            when(userRepository.existsById(1)).thenReturn(false);
+            assertThrows(EntityNotFoundException.class,
+                    () -> userService.update(1, new UserDto(null, "John", null, null), 1));
+        }
+
+    }
+
+    @Nested
+    class UserServiceRemoveTests {
+        @Test
+        void remove_whenUserIsFound_thenRemoveUser() {
+            User expectedUser = User.builder().id(1).name("Mark").email("kostrykinmark@gmail.com").build();
+            when(userRepository.findById(expectedUser.getId())).thenReturn(Optional.of(expectedUser));
+            when(itemRepository.findIdsRemovedWithUser(expectedUser.getId())).thenReturn(List.of(2, 5));
+            when(itemRequestRepository.findIdsByRequestorId(expectedUser.getId())).thenReturn(List.of(3));
+            when(itemRepository.findIdsPointingToBookingsOf(expectedUser.getId())).thenReturn(List.of(7));
+            userService.remove(expectedUser.getId());
+            verify(userRepository, Mockito.times(1)).findById(expectedUser.getId());
+            InOrder inOrder = Mockito.inOrder(userRepository, itemRepository);
+            inOrder.verify(userRepository).delete(expectedUser);
+            inOrder.verify(itemRepository).refreshBookingPointers(eq(7), any(LocalDateTime.class));
+            ArgumentCaptor<UserRemovedEvent> eventCaptor = ArgumentCaptor.forClass(UserRemovedEvent.class);
+            verify(eventPublisher, Mockito.times(1)).publishEvent(eventCaptor.capture());
+            assertEquals(List.of(2, 5), eventCaptor.getValue().getRemovedItemIds());
+            assertEquals(List.of(3), eventCaptor.getValue().getRemovedRequestIds());
+        }
+
+        @Test
+        void remove_whenUserNotFound_thenEntityNotFoundExceptionThrown() {
+            User expectedUser = User.builder().id(1).name("Mark").email("kostrykinmark@gmail.com").build();
+            assertThrows(EntityNotFoundException.class, () -> userService.remove(expectedUser.getId()));
+            verify(userRepository, Mockito.times(1)).findById(expectedUser.getId());
+            verify(userRepository, Mockito.never()).delete(expectedUser);
+            verify(eventPublisher, Mockito.never()).publishEvent(any(UserRemovedEvent.class));
+        }
+    }
+
+}
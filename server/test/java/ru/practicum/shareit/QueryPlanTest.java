@@ -0,0 +1,174 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingSelectionState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingListingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryPlanTest {
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":(\\w+)");
+    private static final String TABLE_SCAN_MARKER = ".tableScan";
+
+    private static final Map<String, List<String>> EXPECTED_INDEXES = Map.ofEntries(
+            Map.entry("findAllByItemId", List.of("IDX_BOOKINGS_ITEM_START")),
+            Map.entry("existsArchivedApprovedBooking", List.of("IDX_BOOKINGS_ARCHIVE_ITEM_STATUS_START")),
+            Map.entry("findIdsToArchive", List.of("IDX_BOOKINGS_END")),
+            Map.entry("findAllByOwnerFromAndLimit", List.of("IDX_ITEMS_USER")));
+
+    private static JdbcTemplate jdbcTemplate;
+
+    // H2 backs every foreign key with its own single column index and prefers it whenever the costs tie,
+    // PostgreSQL creates no such indexes, so the plans are checked against a copy of the schema without them
+    @BeforeAll
+    static void migrateAndSeed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:query-plans;DB_CLOSE_DELAY=-1");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.queryForList("select table_name, constraint_name from information_schema.table_constraints " +
+                        "where constraint_type = 'FOREIGN KEY'")
+                .forEach(constraint -> jdbcTemplate.execute("alter table " + constraint.get("TABLE_NAME") +
+                        " drop constraint " + constraint.get("CONSTRAINT_NAME")));
+
+        jdbcTemplate.update("insert into users (user_id, name, email) " +
+                "select x, 'user' || x, 'user' || x || '@mail.ru' from system_range(1, 20)");
+        jdbcTemplate.update("insert into items (item_id, name, description, available, user_id) " +
+                "select x, 'item' || x, 'description' || x, true, mod(x, 20) + 1 from system_range(1, 100)");
+        jdbcTemplate.update("insert into bookings (booking_id, start_date, end_date, item_id, booker_id, status, owner_id) " +
+                "select x, dateadd('HOUR', x - 250, LOCALTIMESTAMP), dateadd('HOUR', x - 248, LOCALTIMESTAMP), " +
+                "mod(x, 100) + 1, mod(x + 1, 20) + 1, case when mod(x, 3) = 0 then 'WAITING' else 'APPROVED' end, " +
+                "mod(mod(x, 100) + 1, 20) + 1 from system_range(1, 500)");
+        jdbcTemplate.update("insert into bookings_archive " +
+                "(booking_id, start_date, end_date, item_id, booker_id, status, owner_id, version) " +
+                "select booking_id, start_date, end_date, item_id, booker_id, status, owner_id, version " +
+                "from bookings where end_date < dateadd('DAY', -1, LOCALTIMESTAMP)");
+        jdbcTemplate.update("delete from bookings where end_date < dateadd('DAY', -1, LOCALTIMESTAMP)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void nativeQueriesUseIndexes() {
+        Map<String, String> plans = new LinkedHashMap<>();
+        collectPlans(BookingRepository.class, plans);
+        collectPlans(ItemRepository.class, plans);
+
+        assertFalse(plans.isEmpty());
+        plans.forEach((method, plan) ->
+                assertFalse(plan.contains(TABLE_SCAN_MARKER), method + " falls back to a sequential scan:\n" + plan));
+        EXPECTED_INDEXES.forEach((method, indexes) -> {
+            String plan = plans.get(method);
+            assertNotNull(plan, method + " is not a native query any more");
+            indexes.forEach(index -> assertTrue(plan.contains(index), method + " does not use " + index + ":\n" + plan));
+        });
+    }
+
+    @Test
+    void listingQueriesUseIndexes() {
+        Map<String, String> literals = Map.of("userId", "1", "status", "'WAITING'", "cursorStart", "CURRENT_TIMESTAMP",
+                "cursorId", "1", "from", "1", "size", "1");
+        for (BookingRole role : BookingRole.values()) {
+            String liveIndex = role == BookingRole.BOOKER ? "IDX_BOOKINGS_BOOKER_START" : "IDX_BOOKINGS_OWNER_START";
+            String archiveIndex = role == BookingRole.BOOKER ? "IDX_BOOKINGS_ARCHIVE_BOOKER_START" : "IDX_BOOKINGS_ARCHIVE_OWNER_START";
+            for (BookingSelectionState state : BookingSelectionState.values()) {
+                for (boolean afterCursor : List.of(false, true)) {
+                    String name = role + " " + state + (afterCursor ? " after cursor" : "");
+                    String sql = bindLiterals(BookingListingQuery.build(role, state, afterCursor), literals);
+                    String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+                    assertFalse(plan.contains(TABLE_SCAN_MARKER), name + " falls back to a sequential scan:\n" + plan);
+                    assertTrue(plan.contains(liveIndex), name + " does not use " + liveIndex + ":\n" + plan);
+                    if (BookingListingQuery.includesArchive(state)) {
+                        assertTrue(plan.contains(archiveIndex), name + " does not use " + archiveIndex + ":\n" + plan);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void exportQueriesUseIndexes() {
+        Map<String, String> queries = Map.of(
+                "BookingRepository.EXPORT_BY_BOOKER", BookingRepository.EXPORT_BY_BOOKER,
+                "BookingRepository.EXPORT_BY_OWNER", BookingRepository.EXPORT_BY_OWNER,
+                "ItemRepository.EXPORT_BY_OWNER", ItemRepository.EXPORT_BY_OWNER);
+        Map<String, List<String>> expectedIndexes = Map.of(
+                "BookingRepository.EXPORT_BY_BOOKER", List.of("IDX_BOOKINGS_BOOKER_START", "IDX_BOOKINGS_ARCHIVE_BOOKER_START"),
+                "BookingRepository.EXPORT_BY_OWNER", List.of("IDX_BOOKINGS_OWNER_START", "IDX_BOOKINGS_ARCHIVE_OWNER_START"),
+                "ItemRepository.EXPORT_BY_OWNER", List.of("IDX_ITEMS_USER"));
+        queries.forEach((name, sql) -> {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql.replace(":userId", "1"), String.class);
+            assertFalse(plan.contains(TABLE_SCAN_MARKER), name + " falls back to a sequential scan:\n" + plan);
+            expectedIndexes.get(name).forEach(index ->
+                    assertTrue(plan.contains(index), name + " does not use " + index + ":\n" + plan));
+        });
+    }
+
+    private void collectPlans(Class<?> repository, Map<String, String> plans) {
+        for (Method method : repository.getDeclaredMethods()) {
+            Query query = method.getAnnotation(Query.class);
+            if (query == null || !query.nativeQuery()) {
+                continue;
+            }
+            String sql = bindLiterals(query.value(), method);
+            plans.put(method.getName(), jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class));
+        }
+    }
+
+    private String bindLiterals(String sql, Method method) {
+        Map<String, String> literals = new LinkedHashMap<>();
+        for (Parameter parameter : method.getParameters()) {
+            Param param = parameter.getAnnotation(Param.class);
+            if (param == null) {
+                continue;
+            }
+            Class<?> type = parameter.getType();
+            if (String.class.equals(type)) {
+                literals.put(param.value(), "'" + BookingStatus.APPROVED.name() + "'");
+            } else if (LocalDateTime.class.equals(type)) {
+                literals.put(param.value(), "CURRENT_TIMESTAMP");
+            } else if (Collection.class.isAssignableFrom(type)) {
+                literals.put(param.value(), "1, 2, 3");
+            } else {
+                literals.put(param.value(), "1");
+            }
+        }
+        return bindLiterals(sql, literals);
+    }
+
+    private String bindLiterals(String sql, Map<String, String> literals) {
+        Matcher matcher = NAMED_PARAMETER.matcher(sql);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String literal = literals.getOrDefault(matcher.group(1), matcher.group());
+            matcher.appendReplacement(result, Matcher.quoteReplacement(literal));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit;
+
+import db.migration.postgresql.V4_16__check_overlapping_approved_bookings;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrate_whenSchemaIsCurrent_thenNothingApplied() {
+        jdbcTemplate.update("insert into users (user_id, name, email) values (1, 'Mark', 'kostrykinmark@gmail.com')");
+
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(0, flyway.migrate().migrationsExecuted);
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from users", Integer.class));
+    }
+
+    @Test
+    void migrate_whenDatabaseBuiltByOldSchema_thenBaselinedAndUpgraded() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:shareit-legacy;DB_CLOSE_DELAY=-1", "test", "test");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/common/V1__create_tables.sql")).execute(dataSource);
+        JdbcTemplate legacy = new JdbcTemplate(dataSource);
+        legacy.update("insert into users (name, email) values ('Mark', 'kostrykinmark@gmail.com')");
+        legacy.update("insert into users (name, email) values ('John', 'johndoe@gmail.com')");
+        legacy.update("insert into items (name, description, available, user_id) values ('Пылесос', 'Пылесос', true, 1)");
+        legacy.update("insert into bookings (start_date, end_date, item_id, booker_id, status) values (?, ?, 1, 2, 'APPROVED')",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertEquals(1, legacy.queryForObject("select owner_id from bookings where booking_id = 1", Integer.class));
+        assertEquals(1, legacy.queryForObject("select next_booking_id from items where item_id = 1", Integer.class));
+        assertEquals(0, legacy.queryForObject("select version from users where user_id = 2", Integer.class));
+        assertTrue(legacy.queryForObject("select next value for users_seq", Integer.class) - 49 > 2);
+        legacy.update("insert into users (user_id, name, email) values (3, 'Jane', 'janedoe@gmail.com')");
+        assertEquals(0, legacy.queryForObject("select count(*) from bookings_archive", Integer.class));
+    }
+
+    @Test
+    void overlapCheck_whenApprovedBookingsOverlap_thenMigrationStopsWithTheirIds() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:shareit-overlaps;DB_CLOSE_DELAY=-1", "test", "test");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        JdbcTemplate database = new JdbcTemplate(dataSource);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        database.update("insert into users (user_id, name, email) values (1, 'Mark', 'kostrykinmark@gmail.com')");
+        database.update("insert into users (user_id, name, email) values (2, 'John', 'johndoe@gmail.com')");
+        database.update("insert into items (item_id, name, description, available, user_id) values (1, 'Пылесос', 'Пылесос', true, 1)");
+        String insertBooking = "insert into bookings (booking_id, start_date, end_date, item_id, booker_id, owner_id, status) "
+                + "values (?, ?, ?, 1, 2, 1, ?)";
+        database.update(insertBooking, 1, start, start.plusHours(2), "APPROVED");
+        database.update(insertBooking, 2, start.plusHours(3), start.plusHours(5), "APPROVED");
+        database.update(insertBooking, 3, start.plusHours(1), start.plusHours(4), "WAITING");
+        Context context = mock(Context.class);
+        V4_16__check_overlapping_approved_bookings migration = new V4_16__check_overlapping_approved_bookings();
+
+        // the Postgres step that runs right before the exclusion constraint, its query is portable to H2
+        try (Connection connection = dataSource.getConnection()) {
+            when(context.getConnection()).thenReturn(connection);
+            migration.migrate(context);
+
+            // the middle booking overlaps both neighbours, which do not overlap each other
+            database.update("update bookings set status = 'APPROVED' where booking_id = 3");
+            FlywayException exception = assertThrows(FlywayException.class, () -> migration.migrate(context));
+
+            assertTrue(exception.getMessage().contains("item 1: bookings 1 and 3"), exception.getMessage());
+            assertTrue(exception.getMessage().contains("item 1: bookings 2 and 3"), exception.getMessage());
+            assertFalse(exception.getMessage().contains("bookings 1 and 2"), exception.getMessage());
+        }
+        assertEquals(3, database.queryForObject("select count(*) from bookings where status = 'APPROVED'", Integer.class));
+    }
+}
@@ -1,11 +1,18 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingSelectionState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
@@ -14,14 +21,16 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class BookingRepositoryTest {
 
     @Autowired
@@ -32,6 +41,9 @@ class BookingRepositoryTest {
     @Autowired
     BookingRepository bookingRepository;
 
+    @Autowired
+    TestEntityManager entityManager;
+
 
     private User firstUser;
     private User secondUser;
@@ -62,55 +74,104 @@ class BookingRepositoryTest {
         firstItem = itemRepository.save(Item.builder().name("Пылесос").description("Пылесос").owner(firstUser).available(true).build());
         secondItem = itemRepository.save(Item.builder().name("Кофеварка").description("Кофеварка").owner(firstUser).available(true).build());
 
+        // H2 keeps microseconds, so nanosecond fixture times would not survive the round trip
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         firstBooking = bookingRepository.save(Booking
                 .builder()
-                .start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(2)).item(firstItem).booker(secondUser).status(BookingStatus.APPROVED)
+                .start(now.plusHours(1)).end(now.plusDays(2)).item(firstItem).booker(secondUser).status(BookingStatus.APPROVED)
                 .build());
 
         secondBooking = bookingRepository.save(Booking.builder()
-                .start(LocalDateTime.now().minusDays(1)).end(LocalDateTime.now().minusHours(2)).item(firstItem).booker(thirdUser).status(BookingStatus.APPROVED)
+                .start(now.minusDays(1)).end(now.minusHours(2)).item(firstItem).booker(thirdUser).status(BookingStatus.APPROVED)
                 .build());
 
         thirdBooking = bookingRepository.save(Booking
                 .builder()
-                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2)).item(secondItem).booker(secondUser).status(BookingStatus.APPROVED)
+                .start(now.plusDays(1)).end(now.plusDays(2)).item(secondItem).booker(secondUser).status(BookingStatus.APPROVED)
                 .build());
 
         fourthBooking = bookingRepository.save(Booking
                 .builder()
-                .start(LocalDateTime.now().minusDays(1)).end(LocalDateTime.now().plusDays(2)).item(secondItem).booker(thirdUser).status(BookingStatus.WAITING)
+                .start(now.minusDays(1)).end(now.plusDays(2)).item(secondItem).booker(thirdUser).status(BookingStatus.WAITING)
                 .build());
+        // listings read through JDBC, which does not flush pending inserts the way a native query does
+        entityManager.flush();
 
     }
 
     @Test
-    void findLastBookingDateForItem() {
-        Optional<Booking> booking = bookingRepository.findLastBookingDateForItem(firstItem.getId());
-        assertTrue(booking.isPresent());
-        assertEquals(secondBooking, booking.get());
+    void findPointedBookingsForItems_whenPointersRefreshed_thenLastAndNextBookingsReturned() {
+        itemRepository.refreshBookingPointers(firstItem.getId(), LocalDateTime.now());
+        itemRepository.refreshBookingPointers(secondItem.getId(), LocalDateTime.now());
+        List<Booking> bookings = bookingRepository.findPointedBookingsForItems(List.of(firstItem.getId(), secondItem.getId()));
+        assertEquals(3, bookings.size());
+        assertTrue(bookings.contains(firstBooking));
+        assertTrue(bookings.contains(secondBooking));
+        assertTrue(bookings.contains(thirdBooking));
     }
 
     @Test
-    void findNextBookingDateForItem() {
-        Optional<Booking> booking = bookingRepository.findNextBookingDateForItem(firstItem.getId());
-        assertTrue(booking.isPresent());
-        assertEquals(firstBooking, booking.get());
+    void rollStartedBookingPointers_whenNextBookingStarted_thenNextBecomesLast() {
+        itemRepository.refreshBookingPointers(firstItem.getId(), LocalDateTime.now());
+        assertEquals(0, itemRepository.rollStartedBookingPointers(LocalDateTime.now()));
+
+        assertEquals(1, itemRepository.rollStartedBookingPointers(firstBooking.getStart().plusMinutes(1)));
+        entityManager.clear();
+        List<Booking> bookings = bookingRepository.findPointedBookingsForItems(List.of(firstItem.getId()));
+        assertEquals(1, bookings.size());
+        assertEquals(firstBooking.getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    void existsByItem_IdAndStatusAndStartBeforeAndEndAfter() {
+        assertTrue(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(firstItem.getId(), BookingStatus.APPROVED,
+                firstBooking.getEnd().plusHours(1), firstBooking.getEnd().minusHours(1)));
+        assertFalse(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(firstItem.getId(), BookingStatus.APPROVED,
+                firstBooking.getEnd().plusHours(2), firstBooking.getEnd()));
+        assertFalse(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(firstItem.getId(), BookingStatus.APPROVED,
+                firstBooking.getEnd(), firstBooking.getStart(), firstBooking.getId()));
     }
 
     @Test
     void findAllByUser() {
-        List<Booking> bookings = bookingRepository.findAllByUser(secondUser.getId(), 0, 3);
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.BOOKER, secondUser.getId(), BookingSelectionState.ALL, 0, 3);
         assertEquals(2, bookings.size());
-        assertEquals(thirdBooking, bookings.get(0));
-        assertEquals(firstBooking, bookings.get(1));
+        assertEquals(thirdBooking.getId(), bookings.get(0).getId());
+        assertEquals(firstBooking.getId(), bookings.get(1).getId());
     }
 
     @Test
-    void findAllByUserAndStatus() {
-        List<Booking> bookings = bookingRepository.findAllByUserAndStatus(secondUser.getId(), BookingStatus.APPROVED.name(), 0, 3);
+    void findAllByUser_whenBookingUpdated_thenVersionProjected() {
+        thirdBooking.setStatus(BookingStatus.REJECTED);
+        entityManager.flush();
+
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.BOOKER, secondUser.getId(), BookingSelectionState.ALL, 0, 3);
+        assertEquals(thirdBooking.getVersion(), bookings.get(0).getVersion());
+        assertEquals(firstBooking.getVersion(), bookings.get(1).getVersion());
+        assertNotEquals(bookings.get(0).getVersion(), bookings.get(1).getVersion());
+    }
+
+    @Test
+    void findAllByUserAfterCursor() {
+        List<BookingView> firstPage = bookingRepository.findAllByRole(BookingRole.BOOKER, secondUser.getId(), BookingSelectionState.ALL, 0, 1);
+        BookingView last = firstPage.get(0);
+        List<BookingView> bookings = bookingRepository.findAllByRoleAfterCursor(BookingRole.BOOKER, secondUser.getId(), BookingSelectionState.ALL, new BookingCursor(last.getStartDate(), last.getId()), 3);
+        assertEquals(1, bookings.size());
+        assertEquals(firstBooking.getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    void findAllByOwnerItemsAfterCursor() {
+        List<BookingView> bookings = bookingRepository.findAllByRoleAfterCursor(BookingRole.OWNER, firstUser.getId(), BookingSelectionState.ALL, new BookingCursor(thirdBooking.getStart(), thirdBooking.getId()), 2);
         assertEquals(2, bookings.size());
-        assertEquals(thirdBooking, bookings.get(0));
-        assertEquals(firstBooking, bookings.get(1));
+        assertEquals(firstBooking.getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    void findAllByUserAndStatus() {
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.BOOKER, thirdUser.getId(), BookingSelectionState.WAITING, 0, 3);
+        assertEquals(1, bookings.size());
+        assertEquals(fourthBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
@@ -123,53 +184,116 @@ class BookingRepositoryTest {
 
     @Test
     void findAllBookingsByOwnerItemsAndStatus() {
-        List<Booking> bookings = bookingRepository.findAllBookingsByOwnerItemsAndStatus(firstUser.getId(), "APPROVED", 0, 2);
-        assertEquals(2, bookings.size());
-        assertEquals(thirdBooking, bookings.get(0));
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.OWNER, firstUser.getId(), BookingSelectionState.WAITING, 0, 2);
+        assertEquals(1, bookings.size());
+        assertEquals(fourthBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
     void findAllFutureBookingsByUser() {
-        List<Booking> bookings = bookingRepository.findAllFutureBookingsByUser(secondUser.getId(), 0, 2);
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.BOOKER, secondUser.getId(), BookingSelectionState.FUTURE, 0, 2);
         assertEquals(2, bookings.size());
-        assertEquals(thirdBooking, bookings.get(0));
-        assertEquals(firstBooking, bookings.get(1));
+        assertEquals(thirdBooking.getId(), bookings.get(0).getId());
+        assertEquals(firstBooking.getId(), bookings.get(1).getId());
     }
 
     @Test
     void findAllCurrentBookingsByUser() {
-        List<Booking> bookings = bookingRepository.findAllCurrentBookingsByUser(thirdUser.getId(), 0, 2);
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.BOOKER, thirdUser.getId(), BookingSelectionState.CURRENT, 0, 2);
         assertEquals(1, bookings.size());
-        assertEquals(fourthBooking, bookings.get(0));
+        assertEquals(fourthBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
     void findAllPastBookingsByUser() {
-        List<Booking> bookings = bookingRepository.findAllPastBookingsByUser(thirdUser.getId(), 0, 1);
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.BOOKER, thirdUser.getId(), BookingSelectionState.PAST, 0, 1);
         assertEquals(1, bookings.size());
-        assertEquals(secondBooking, bookings.get(0));
+        assertEquals(secondBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
     void findAllFutureBookingsByOwnerItems() {
-        List<Booking> bookings = bookingRepository.findAllFutureBookingsByOwnerItems(firstUser.getId(), 0, 2);
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.OWNER, firstUser.getId(), BookingSelectionState.FUTURE, 0, 2);
         assertEquals(2, bookings.size());
-        assertEquals(thirdBooking, bookings.get(0));
+        assertEquals(thirdBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
     void findAllCurrentBookingsByOwnerItems() {
-        List<Booking> bookings = bookingRepository.findAllCurrentBookingsByOwnerItems(firstUser.getId(), 0, 2);
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.OWNER, firstUser.getId(), BookingSelectionState.CURRENT, 0, 2);
         assertEquals(1, bookings.size());
-        assertEquals(fourthBooking, bookings.get(0));
+        assertEquals(fourthBooking.getId(), bookings.get(0).getId());
     }
 
     @Test
     void findAllPastBookingsByOwnerItems() {
-        List<Booking> bookings = bookingRepository.findAllPastBookingsByOwnerItems(firstUser.getId(), 0, 3);
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.OWNER, firstUser.getId(), BookingSelectionState.PAST, 0, 3);
         assertEquals(1, bookings.size());
-        assertEquals(secondBooking, bookings.get(0));
+        assertEquals(secondBooking.getId(), bookings.get(0).getId());
     }
 
+    @Test
+    void save_whenBookingCreated_thenOwnerIdCopiedFromItem() {
+        assertEquals(firstUser.getId(), firstBooking.getOwnerId());
+        assertEquals(firstUser.getId(), fourthBooking.getOwnerId());
+    }
+
+    @Test
+    void findAllByOwnerItems_whenItemChangesOwner_thenBookingsFollowItem() {
+        firstItem.setOwner(thirdUser);
+        itemRepository.saveAndFlush(firstItem);
+
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.OWNER, thirdUser.getId(), BookingSelectionState.ALL, 0, 5);
 
+        assertEquals(2, bookings.size());
+        assertEquals(firstBooking.getId(), bookings.get(0).getId());
+        assertEquals(secondBooking.getId(), bookings.get(1).getId());
+        assertEquals(2, bookingRepository.findAllByRole(BookingRole.OWNER, firstUser.getId(), BookingSelectionState.ALL, 0, 5).size());
+    }
+
+    @Test
+    void findAllByUser_whenBookingArchived_thenMergedFromArchive() {
+        itemRepository.refreshBookingPointers(firstItem.getId(), LocalDateTime.now());
+        List<Integer> bookingIds = bookingRepository.findIdsToArchive(LocalDateTime.now(), 10);
+        assertEquals(List.of(secondBooking.getId()), bookingIds);
+        assertEquals(1, bookingRepository.copyToArchive(bookingIds));
+        assertEquals(1, bookingRepository.deleteArchived(bookingIds));
+        entityManager.clear();
+
+        assertTrue(bookingRepository.findById(secondBooking.getId()).isEmpty());
+        assertEquals(secondBooking.getId(), bookingRepository.findArchivedById(secondBooking.getId()).get().getId());
+        assertTrue(bookingRepository.existsArchivedApprovedBooking(thirdUser.getId(), firstItem.getId()));
+        assertTrue(bookingRepository.findPointedBookingsForItems(List.of(firstItem.getId())).stream()
+                .anyMatch(booking -> booking.getId().equals(secondBooking.getId())));
+
+        List<BookingView> pastBookings = bookingRepository.findAllByRole(BookingRole.BOOKER, thirdUser.getId(), BookingSelectionState.PAST, 0, 5);
+        assertEquals(1, pastBookings.size());
+        assertEquals(secondBooking.getId(), pastBookings.get(0).getId());
+        assertEquals(secondBooking.getVersion(), pastBookings.get(0).getVersion());
+
+        List<BookingView> allBookings = bookingRepository.findAllByRole(BookingRole.BOOKER, thirdUser.getId(), BookingSelectionState.ALL, 0, 5);
+        assertEquals(2, allBookings.size());
+        assertEquals(fourthBooking.getId(), allBookings.get(0).getId());
+        assertEquals(secondBooking.getId(), allBookings.get(1).getId());
+
+        List<BookingView> ownerPage = bookingRepository.findAllByRole(BookingRole.OWNER, firstUser.getId(), BookingSelectionState.ALL, 3, 1);
+        assertEquals(1, ownerPage.size());
+        assertEquals(secondBooking.getId(), ownerPage.get(0).getId());
+    }
+
+    @Test
+    void findAllByOwnerItems_whenPageRequested_thenNoEntitiesLoaded() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingView> bookings = bookingRepository.findAllByRole(BookingRole.OWNER, firstUser.getId(), BookingSelectionState.ALL, 0, 4);
+
+        assertEquals(4, bookings.size());
+        assertEquals(secondItem.getName(), bookings.get(0).getItemName());
+        assertEquals(secondUser.getId(), bookings.get(0).getBookerId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
 }
@@ -5,31 +5,47 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingSelectionState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.common.JsonLinesExporter;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -41,6 +57,10 @@ public class BookingServiceImplTest {
     private ItemRepository itemRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private JsonLinesExporter exporter;
 
     @Autowired
     private BookingMapper bookingMapper;
@@ -57,11 +77,11 @@ public class BookingServiceImplTest {
     @BeforeEach
     void setUp() {
         bookingMapper = new BookingMapper();
-        bookingService = new BookingServiceImpl(userRepository, itemRepository, bookingRepository, bookingMapper);
-        user = new User(1, "Mark", "kostrykinmark@gmail.com");
-        anotherUser = new User(2, "John", "johndoe@gmail.com");
-        item = new Item(1, "Пылесос", "Пылесос", true, user, null);
-        booking = new Booking(1, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, BookingStatus.WAITING);
+        bookingService = new BookingServiceImpl(userRepository, itemRepository, bookingRepository, eventPublisher, bookingMapper, exporter);
+        user = new User(1, "Mark", "kostrykinmark@gmail.com", null);
+        anotherUser = new User(2, "John", "johndoe@gmail.com", null);
+        item = new Item(1, "Пылесос", "Пылесос", true, user, null, null);
+        booking = new Booking(1, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user, user.getId(), BookingStatus.WAITING, null);
     }
 
     @Nested
@@ -81,7 +101,7 @@ public class BookingServiceImplTest {
             BookingRequestDto bookingRequestDto = BookingRequestDto
                     .builder().start(LocalDateTime.now().plusHours(1)).end(LocalDateTime.now().plusDays(1)).itemId(1).build();
             when(userRepository.findById(anyInt()))
-                    .thenReturn(Optional.of(new User(1, "Mark", "kostrykinmark@gmail.com")));
+                    .thenReturn(Optional.of(new User(1, "Mark", "kostrykinmark@gmail.com", null)));
             when(itemRepository.findById(anyInt())).thenReturn(Optional.empty());
             assertThrows(EntityNotFoundException.class, () -> bookingService.add(1, bookingRequestDto));
             verify(userRepository, Mockito.times(1)).findById(1);
@@ -119,6 +139,18 @@ public class BookingServiceImplTest {
         }
 
 
+        @Test
+        void add_whenApprovedBookingOverlaps_thenBookingOverlapExceptionThrown() {
+            BookingRequestDto bookingRequestDto = BookingRequestDto
+                    .builder().start(LocalDateTime.now().plusDays(2)).end(LocalDateTime.now().plusDays(3)).itemId(1).build();
+            when(userRepository.findById(anyInt())).thenReturn(Optional.of(anotherUser));
+            when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
+            when(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(1, BookingStatus.APPROVED,
+                    bookingRequestDto.getEnd(), bookingRequestDto.getStart())).thenReturn(true);
+            assertThrows(BookingOverlapException.class, () -> bookingService.add(2, bookingRequestDto));
+            verify(bookingRepository, Mockito.never()).save(any(Booking.class));
+        }
+
         @Test
         void add_whenBookingIsValid_thenReturnBooking() {
             BookingRequestDto bookingRequestDto = BookingRequestDto
@@ -130,11 +162,12 @@ public class BookingServiceImplTest {
             bookingToSave.setItem(item);
             bookingToSave.setBooker(anotherUser);
             bookingToSave.setStatus(BookingStatus.WAITING);
-            when(bookingRepository.save(any(Booking.class))).thenReturn(bookingToSave);
+            when(bookingRepository.saveAndFlush(any(Booking.class))).thenReturn(bookingToSave);
             bookingService.add(2, bookingRequestDto);
             verify(userRepository, Mockito.times(1)).findById(2);
             verify(itemRepository, Mockito.times(1)).findById(1);
-            verify(bookingRepository, Mockito.times(1)).save(any(Booking.class));
+            verify(bookingRepository, Mockito.times(1)).saveAndFlush(any(Booking.class));
+            verify(eventPublisher, Mockito.times(1)).publishEvent(any(ItemChangedEvent.class));
         }
     }
 
@@ -170,6 +203,16 @@ public class BookingServiceImplTest {
             when(bookingRepository.findById(1)).thenReturn(Optional.of(booking));
             assertEquals(bookingMapper.mapToBookingDto(booking), bookingService.getById(1, 1));
         }
+
+        @Test
+        void getById_whenBookingArchived_thenReturnArchivedBooking() {
+            Booking booking = Booking.builder().id(1).start(LocalDateTime.now().minusYears(1)).end(LocalDateTime.now().minusYears(1).plusDays(1))
+                    .booker(user).item(item).status(BookingStatus.APPROVED).build();
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(bookingRepository.findById(1)).thenReturn(Optional.empty());
+            when(bookingRepository.findArchivedById(1)).thenReturn(Optional.of(booking));
+            assertEquals(bookingMapper.mapToBookingDto(booking), bookingService.getById(1, 1));
+        }
     }
 
     @Nested
@@ -185,35 +228,44 @@ public class BookingServiceImplTest {
         void getAllByBooker_whenStateIsAll_thenFindAllByUser() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByBooker(1, "ALL", 1, 1);
-            verify(bookingRepository, Mockito.times(1)).findAllByUser(1, 1, 1);
+            verify(bookingRepository, Mockito.times(1)).findAllByRole(BookingRole.BOOKER, 1, BookingSelectionState.ALL, 1, 1);
         }
 
         @Test
         void getAllByBooker_whenStateIsCurrent_thenFindAllCurrentBookingsByUser() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByBooker(1, "CURRENT", 1, 1);
-            verify(bookingRepository, Mockito.times(1)).findAllCurrentBookingsByUser(1, 1, 1);
+            verify(bookingRepository, Mockito.times(1)).findAllByRole(BookingRole.BOOKER, 1, BookingSelectionState.CURRENT, 1, 1);
         }
 
         @Test
         void getAllByBooker_whenStateIsPast_thenFindAllPastBookingsByUser() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByBooker(1, "PAST", 1, 1);
-            verify(bookingRepository, Mockito.times(1)).findAllPastBookingsByUser(1, 1, 1);
+            verify(bookingRepository, Mockito.times(1)).findAllByRole(BookingRole.BOOKER, 1, BookingSelectionState.PAST, 1, 1);
         }
 
         @Test
         void getAllByBooker_whenStateIsFuture_thenFindAllFutureBookingsByUser() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByBooker(1, "FUTURE", 1, 1);
-            verify(bookingRepository, Mockito.times(1)).findAllFutureBookingsByUser(1, 1, 1);
+            verify(bookingRepository, Mockito.times(1)).findAllByRole(BookingRole.BOOKER, 1, BookingSelectionState.FUTURE, 1, 1);
         }
 
         @Test
         void getAllByBooker_whenStateIsWaitingOrRejected_thenFindAllByUserAndStatus() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByBooker(1, "WAITING", 1, 1);
-            verify(bookingRepository, Mockito.times(1)).findAllByUserAndStatus(1, "WAITING", 1, 1);
+            verify(bookingRepository, Mockito.times(1)).findAllByRole(BookingRole.BOOKER, 1, BookingSelectionState.WAITING, 1, 1);
+        }
+
+        @Test
+        void getAllByBooker_whenCursorGiven_thenSeekAfterCursor() {
+            LocalDateTime cursorStart = LocalDateTime.now();
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            bookingService.getAllByBooker(1, "PAST", new BookingCursor(cursorStart, 5), 1);
+            verify(bookingRepository, Mockito.times(1)).findAllByRoleAfterCursor(BookingRole.BOOKER, 1, BookingSelectionState.PAST, new BookingCursor(cursorStart, 5), 1);
+            verify(bookingRepository, Mockito.never()).findAllByRole(any(), anyInt(), any(), anyInt(), anyInt());
         }
 
         @Test
@@ -237,38 +289,47 @@ public class BookingServiceImplTest {
         void getAllByItemsOwner_whenStateIsAll_thenFindAllByItemId() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByItemsOwner(1, "ALL", 1, 1);
-            verify(bookingRepository, Mockito.atLeast(1)).findAllByOwnerItems(1, 1, 1);
+            verify(bookingRepository, Mockito.atLeast(1)).findAllByRole(BookingRole.OWNER, 1, BookingSelectionState.ALL, 1, 1);
         }
 
         @Test
         void getAllByItemsOwner_whenStateIsCurrent_thenFindAllCurrentBookingsByItemId() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByItemsOwner(1, "CURRENT", 1, 1);
-            verify(bookingRepository, Mockito.atLeast(1)).findAllCurrentBookingsByOwnerItems(1, 1, 1);
+            verify(bookingRepository, Mockito.atLeast(1)).findAllByRole(BookingRole.OWNER, 1, BookingSelectionState.CURRENT, 1, 1);
         }
 
         @Test
         void getAllByItemsOwner_whenStateIsPast_thenFindAllPastBookingsByItemId() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByItemsOwner(1, "PAST", 1, 1);
-            verify(bookingRepository, Mockito.atLeast(1)).findAllPastBookingsByOwnerItems(1, 1, 1);
+            verify(bookingRepository, Mockito.atLeast(1)).findAllByRole(BookingRole.OWNER, 1, BookingSelectionState.PAST, 1, 1);
         }
 
         @Test
         void getAllByItemsOwner_whenStateIsFuture_thenFindAllFutureBookingsByItemId() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByItemsOwner(1, "FUTURE", 1, 1);
-            verify(bookingRepository, Mockito.atLeast(1)).findAllFutureBookingsByOwnerItems(1, 1, 1);
+            verify(bookingRepository, Mockito.atLeast(1)).findAllByRole(BookingRole.OWNER, 1, BookingSelectionState.FUTURE, 1, 1);
         }
 
         @Test
         void getAllByItemsOwner_whenStateIsWaitingOrRejected_thenFindAllByItemIdAndStatus() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             bookingService.getAllByItemsOwner(1, "WAITING", 1, 1);
-            verify(bookingRepository, Mockito.atLeast(1)).findAllBookingsByOwnerItemsAndStatus(1, "WAITING", 1, 1);
+            verify(bookingRepository, Mockito.atLeast(1)).findAllByRole(BookingRole.OWNER, 1, BookingSelectionState.WAITING, 1, 1);
         }
 
 
+        @Test
+        void getAllByItemsOwner_whenCursorGiven_thenSeekAfterCursor() {
+            LocalDateTime cursorStart = LocalDateTime.now();
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            bookingService.getAllByItemsOwner(1, "ALL", new BookingCursor(cursorStart, 5), 1);
+            verify(bookingRepository, Mockito.times(1)).findAllByRoleAfterCursor(BookingRole.OWNER, 1, BookingSelectionState.ALL, new BookingCursor(cursorStart, 5), 1);
+            verify(bookingRepository, Mockito.never()).findAllByRole(any(), anyInt(), any(), anyInt(), anyInt());
+        }
+
         @Test
         void getAllByItemsOwner_whenStateIsInvalid_thenUnsupportedStatusExceptionThrown() {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
@@ -281,21 +342,21 @@ public class BookingServiceImplTest {
         @Test
         void updateBookingStatus_whenBookingIsNotFound_thenEntityNotFoundExceptionThrown() {
             when(bookingRepository.findById(1)).thenReturn(Optional.empty());
-            assertThrows(EntityNotFoundException.class, () -> bookingService.updateBookingStatus(1, 1, true));
+            assertThrows(EntityNotFoundException.class, () -> bookingService.updateBookingStatus(1, 1, true, null));
         }
 
         @Test
         void updateBookingStatus_whenUserIsNotFound_thenEntityNotFoundExceptionThrown() {
             when(bookingRepository.findById(1)).thenReturn(Optional.of(booking));
             when(userRepository.findById(1)).thenReturn(Optional.empty());
-            assertThrows(EntityNotFoundException.class, () -> bookingService.updateBookingStatus(1, 1, true));
+            assertThrows(EntityNotFoundException.class, () -> bookingService.updateBookingStatus(1, 1, true, null));
         }
 
         @Test
         void updateBookingStatus_whenBookerNotEqualsItemsOwner_thenWrongOwnerOrBookerExceptionThrown() {
             when(bookingRepository.findById(1)).thenReturn(Optional.of(booking));
             when(userRepository.findById(2)).thenReturn(Optional.of(anotherUser));
-            assertThrows(WrongOwnerOrBookerException.class, () -> bookingService.updateBookingStatus(2, 1, true));
+            assertThrows(WrongOwnerOrBookerException.class, () -> bookingService.updateBookingStatus(2, 1, true, null));
         }
 
 
@@ -304,7 +365,40 @@ public class BookingServiceImplTest {
             booking.setStatus(BookingStatus.REJECTED);
             when(bookingRepository.findById(1)).thenReturn(Optional.of(booking));
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
-            assertThrows(BookingStatusAlreadyAcceptedOrRejectedException.class, () -> bookingService.updateBookingStatus(1, 1, true));
+            assertThrows(BookingStatusAlreadyAcceptedOrRejectedException.class, () -> bookingService.updateBookingStatus(1, 1, true, null));
+        }
+
+        @Test
+        void updateBookingStatus_whenApprovedBookingOverlaps_thenBookingOverlapExceptionThrown() {
+            when(bookingRepository.findById(1)).thenReturn(Optional.of(booking));
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(1, BookingStatus.APPROVED,
+                    booking.getEnd(), booking.getStart(), 1)).thenReturn(true);
+            assertThrows(BookingOverlapException.class, () -> bookingService.updateBookingStatus(1, 1, true, null));
+            verify(itemRepository, Mockito.times(1)).findByIdForUpdate(1);
+            verify(bookingRepository, Mockito.never()).saveAndFlush(any(Booking.class));
+        }
+
+        @Test
+        void updateBookingStatus_whenExpectedVersionDiffers_thenVersionConflictExceptionThrown() {
+            booking.setVersion(1);
+            when(bookingRepository.findById(1)).thenReturn(Optional.of(booking));
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            assertThrows(VersionConflictException.class, () -> bookingService.updateBookingStatus(1, 1, true, 0));
+            verify(itemRepository, Mockito.never()).findByIdForUpdate(anyInt());
+            verify(bookingRepository, Mockito.never()).saveAndFlush(any(Booking.class));
+            assertEquals(BookingStatus.WAITING, booking.getStatus());
+        }
+
+        @Test
+        void updateBookingStatus_whenRejected_thenNoOverlapCheck() {
+            when(bookingRepository.findById(1)).thenReturn(Optional.of(booking));
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(bookingRepository.saveAndFlush(any(Booking.class))).thenReturn(booking);
+            bookingService.updateBookingStatus(1, 1, false, null);
+            verify(itemRepository, Mockito.never()).findByIdForUpdate(anyInt());
+            verify(itemRepository, Mockito.never()).refreshBookingPointers(anyInt(), any(LocalDateTime.class));
+            assertEquals(BookingStatus.REJECTED, booking.getStatus());
         }
 
         @Test
@@ -313,9 +407,12 @@ public class BookingServiceImplTest {
             when(userRepository.findById(1)).thenReturn(Optional.of(user));
             Booking updatedBooking = Booking.builder().id(booking.getId()).start(booking.getStart()).end(booking.getEnd())
                     .item(booking.getItem()).booker(booking.getBooker()).status(BookingStatus.APPROVED).build();
-            when(bookingRepository.save(any(Booking.class))).thenReturn(updatedBooking);
-            BookingResponseDto savedBooking = bookingService.updateBookingStatus(1, 1, true);
-            verify(bookingRepository, Mockito.times(1)).save(any(Booking.class));
+            when(bookingRepository.saveAndFlush(any(Booking.class))).thenReturn(updatedBooking);
+            BookingResponseDto savedBooking = bookingService.updateBookingStatus(1, 1, true, null);
+            verify(itemRepository, Mockito.times(1)).findByIdForUpdate(1);
+            verify(bookingRepository, Mockito.times(1)).saveAndFlush(any(Booking.class));
+            verify(itemRepository, Mockito.times(1)).refreshBookingPointers(eq(1), any(LocalDateTime.class));
+            verify(eventPublisher, Mockito.times(1)).publishEvent(any(ItemChangedEvent.class));
             assertEquals(booking.getId(), savedBooking.getId());
             assertEquals(booking.getStart(), savedBooking.getStart());
             assertEquals(booking.getEnd(), savedBooking.getEnd());
@@ -327,4 +424,115 @@ public class BookingServiceImplTest {
 
     }
 
+    @Nested
+    class BookingServiceUpdateBookingStatusesTests {
+        @Test
+        void updateBookingStatuses_whenUserIsNotFound_thenEntityNotFoundExceptionThrown() {
+            when(userRepository.findById(1)).thenReturn(Optional.empty());
+            assertThrows(EntityNotFoundException.class,
+                    () -> bookingService.updateBookingStatuses(1, List.of(new BookingDecisionDto(1, true, null))));
+            verify(bookingRepository, Mockito.never()).findAllByIdForUpdate(anyCollection());
+        }
+
+        @Test
+        void updateBookingStatuses_whenDecisionsMixed_thenPerIdResultsReturned() {
+            Item anotherItem = new Item(2, "Кофеварка", "Кофеварка", true, anotherUser, null, null);
+            Booking overlappingBooking = new Booking(2, booking.getStart().plusHours(1), booking.getEnd().plusHours(1), item, anotherUser, user.getId(), BookingStatus.WAITING, null);
+            Booking foreignBooking = new Booking(4, booking.getStart(), booking.getEnd(), anotherItem, user, anotherUser.getId(), BookingStatus.WAITING, null);
+            Booking decidedBooking = new Booking(5, booking.getStart().plusDays(5), booking.getEnd().plusDays(5), item, anotherUser, user.getId(), BookingStatus.APPROVED, null);
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(bookingRepository.findItemIdsByIdInAndOwnerId(Set.of(1, 2, 3, 4, 5), user.getId())).thenReturn(List.of(1));
+            when(bookingRepository.findAllByIdForUpdate(Set.of(1, 2, 3, 4, 5)))
+                    .thenReturn(List.of(booking, overlappingBooking, foreignBooking, decidedBooking));
+
+            List<BookingDecisionResultDto> results = bookingService.updateBookingStatuses(1, List.of(
+                    new BookingDecisionDto(1, true, null),
+                    new BookingDecisionDto(2, true, null),
+                    new BookingDecisionDto(3, true, null),
+                    new BookingDecisionDto(4, false, null),
+                    new BookingDecisionDto(5, false, null)));
+
+            assertEquals(5, results.size());
+            assertEquals(BookingStatus.APPROVED.name(), results.get(0).getBooking().getStatus());
+            assertNull(results.get(0).getError());
+            assertEquals(String.format(BookingServiceImpl.BOOKING_OVERLAP_MESSAGE, 1), results.get(1).getError());
+            assertEquals(String.format(BookingServiceImpl.BOOKING_NOT_FOUND_MESSAGE, 3), results.get(2).getError());
+            assertNotNull(results.get(3).getError());
+            assertEquals(BookingServiceImpl.BOOKING_STATUS_ALREADY_ACCEPTED_OR_REJECTED_MESSAGE, results.get(4).getError());
+            assertEquals(BookingStatus.WAITING, overlappingBooking.getStatus());
+            assertEquals(BookingStatus.WAITING, foreignBooking.getStatus());
+            InOrder lockOrder = Mockito.inOrder(itemRepository, bookingRepository);
+            lockOrder.verify(itemRepository).findAllByIdForUpdate(Set.of(1));
+            lockOrder.verify(bookingRepository).findAllByIdForUpdate(Set.of(1, 2, 3, 4, 5));
+            verify(itemRepository, Mockito.times(1)).refreshBookingPointers(eq(1), any(LocalDateTime.class));
+            verify(eventPublisher, Mockito.times(1)).publishEvent(any(ItemChangedEvent.class));
+            verify(bookingRepository, Mockito.never()).save(any(Booking.class));
+        }
+
+        @Test
+        void updateBookingStatuses_whenDecisionIncomplete_thenReportedWithoutRejecting() {
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+
+            List<BookingDecisionResultDto> results = bookingService.updateBookingStatuses(1, List.of(
+                    new BookingDecisionDto(null, true, null),
+                    new BookingDecisionDto(1, null, null)));
+
+            assertEquals(2, results.size());
+            assertNull(results.get(0).getBookingId());
+            assertEquals(BookingServiceImpl.INCOMPLETE_BOOKING_DECISION_MESSAGE, results.get(0).getError());
+            assertEquals(1, results.get(1).getBookingId());
+            assertEquals(BookingServiceImpl.INCOMPLETE_BOOKING_DECISION_MESSAGE, results.get(1).getError());
+            assertEquals(BookingStatus.WAITING, booking.getStatus());
+            verify(bookingRepository, Mockito.never()).findItemIdsByIdInAndOwnerId(any(), anyInt());
+            verify(bookingRepository, Mockito.never()).findAllByIdForUpdate(any());
+            verify(eventPublisher, Mockito.never()).publishEvent(any(ItemChangedEvent.class));
+        }
+
+        @Test
+        void updateBookingStatuses_whenExpectedVersionStale_thenConflictReported() {
+            booking.setVersion(3);
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(bookingRepository.findItemIdsByIdInAndOwnerId(Set.of(1), user.getId())).thenReturn(List.of(1));
+            when(bookingRepository.findAllByIdForUpdate(Set.of(1))).thenReturn(List.of(booking));
+
+            List<BookingDecisionResultDto> results = bookingService.updateBookingStatuses(1, List.of(new BookingDecisionDto(1, true, 2)));
+
+            assertNull(results.get(0).getBooking());
+            assertEquals(String.format(BookingServiceImpl.BOOKING_VERSION_CONFLICT_MESSAGE, 1), results.get(0).getError());
+            assertEquals(BookingStatus.WAITING, booking.getStatus());
+        }
+
+        @Test
+        void updateBookingStatuses_whenApproved_thenVersionAfterFlushReturned() {
+            booking.setVersion(3);
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(bookingRepository.findItemIdsByIdInAndOwnerId(Set.of(1), user.getId())).thenReturn(List.of(1));
+            when(bookingRepository.findAllByIdForUpdate(Set.of(1))).thenReturn(List.of(booking));
+            doAnswer(invocation -> {
+                booking.setVersion(4);
+                return null;
+            }).when(bookingRepository).flush();
+
+            List<BookingDecisionResultDto> results = bookingService.updateBookingStatuses(1, List.of(new BookingDecisionDto(1, true, 3)));
+
+            assertNull(results.get(0).getError());
+            assertEquals(4, results.get(0).getBooking().getVersion());
+        }
+
+        @Test
+        void updateBookingStatuses_whenApprovedBookingOverlapsStored_thenOverlapReported() {
+            Booking approvedBooking = new Booking(7, booking.getStart().minusHours(1), booking.getStart().plusHours(1), item, anotherUser, user.getId(), BookingStatus.APPROVED, null);
+            when(userRepository.findById(1)).thenReturn(Optional.of(user));
+            when(bookingRepository.findItemIdsByIdInAndOwnerId(Set.of(1), user.getId())).thenReturn(List.of(1));
+            when(bookingRepository.findAllByIdForUpdate(Set.of(1))).thenReturn(List.of(booking));
+            when(bookingRepository.findAllByItem_IdInAndStatusAndStartBeforeAndEndAfter(Set.of(1), BookingStatus.APPROVED, booking.getEnd(), booking.getStart()))
+                    .thenReturn(List.of(approvedBooking));
+            List<BookingDecisionResultDto> results = bookingService.updateBookingStatuses(1, List.of(new BookingDecisionDto(1, true, null)));
+            assertNull(results.get(0).getBooking());
+            assertEquals(String.format(BookingServiceImpl.BOOKING_OVERLAP_MESSAGE, 1), results.get(0).getError());
+            assertEquals(BookingStatus.WAITING, booking.getStatus());
+            verify(itemRepository, Mockito.never()).refreshBookingPointers(anyInt(), any(LocalDateTime.class));
+        }
+    }
+
 }
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,7 +17,10 @@ import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -32,12 +37,14 @@ class BookingServiceIntegrationTest {
     private final ItemService itemService;
 
     private final BookingService bookingService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
 
     @Test
     void getAllByBooker() {
-        UserDto firstUser = userService.add(new UserDto(1, "Mark", "kostrykinmark@gmail.com"));
-        UserDto secondUser = userService.add(new UserDto(2, "John", "johndoe@gmail.com"));
+        UserDto firstUser = userService.add(new UserDto(1, "Mark", "kostrykinmark@gmail.com", null));
+        UserDto secondUser = userService.add(new UserDto(2, "John", "johndoe@gmail.com", null));
 
 
         ItemRequestDto firstItem = itemService.add(firstUser.getId(), ItemRequestDto
@@ -69,4 +76,37 @@ class BookingServiceIntegrationTest {
     void getAllByBooker_whenFromOrSizeWrong_thenEntityNotFoundException() {
         assertThrows(EntityNotFoundException.class, () -> bookingService.getAllByBooker(2, "ALL", 0, 3));
     }
+
+    @Test
+    void exportAllByBooker_thenOneJsonLinePerBookingNewestFirst() throws Exception {
+        UserDto owner = userService.add(new UserDto(null, "Mark", "kostrykinmark@gmail.com", null));
+        UserDto booker = userService.add(new UserDto(null, "John", "johndoe@gmail.com", null));
+        ItemRequestDto item = itemService.add(owner.getId(), ItemRequestDto
+                .builder().name("Пылесос").description("Пылесос").available(true).build());
+        BookingResponseDto earlierBooking = bookingService.add(booker.getId(), BookingRequestDto
+                .builder()
+                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2)).itemId(item.getId())
+                .build());
+        BookingResponseDto laterBooking = bookingService.add(booker.getId(), BookingRequestDto
+                .builder()
+                .start(LocalDateTime.now().plusDays(3)).end(LocalDateTime.now().plusDays(4)).itemId(item.getId())
+                .build());
+        entityManager.flush();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bookingService.exportAllByBooker(booker.getId()).writeTo(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode firstLine = objectMapper.readTree(lines[0]);
+        assertEquals(laterBooking.getId(), firstLine.get("id").asInt());
+        assertEquals(item.getId(), firstLine.get("item").get("id").asInt());
+        assertEquals("Пылесос", firstLine.get("item").get("name").asText());
+        assertEquals(earlierBooking.getId(), objectMapper.readTree(lines[1]).get("id").asInt());
+    }
+
+    @Test
+    void exportAllByBooker_whenUserNotFound_thenEntityNotFoundException() {
+        assertThrows(EntityNotFoundException.class, () -> bookingService.exportAllByBooker(-1));
+    }
 }
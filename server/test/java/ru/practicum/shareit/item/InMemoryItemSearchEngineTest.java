@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.user.event.UserRemovedEvent;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private InMemoryItemSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        searchEngine = new InMemoryItemSearchEngine(itemRepository);
+        searchEngine.index(new Item(1, "Пылесос", "Пылесос", true, null, null, null));
+        searchEngine.index(new Item(2, "коФеВаРка", "КофеВАРка", true, null, null, null));
+        searchEngine.index(new Item(3, "Дрель", "Аккумуляторная дрель", true, null, null, null));
+        searchEngine.index(new Item(4, "Отвертка", "Аккумуляторная отвертка", true, null, null, null));
+    }
+
+    @Test
+    void search_whenTextDiffersInCase_thenItemFound() {
+        assertEquals(List.of(2), searchEngine.search("кофеварка", 0, 10));
+    }
+
+    @Test
+    void search_whenTextIsPrefix_thenItemFound() {
+        assertEquals(List.of(4), searchEngine.search("оТверТ", 0, 10));
+    }
+
+    @Test
+    void search_whenSeveralItemsMatch_thenNameMatchesRankedFirst() {
+        searchEngine.index(new Item(5, "Шуруповерт", "Дрель-шуруповерт", true, null, null, null));
+        assertEquals(List.of(3, 5), searchEngine.search("дрель", 0, 10));
+        assertEquals(List.of(5), searchEngine.search("дрель", 1, 10));
+    }
+
+    @Test
+    void search_whenItemUpdated_thenOldTermsDropped() {
+        searchEngine.index(new Item(1, "Робот", "Робот", true, null, null, null));
+        assertTrue(searchEngine.search("пылесос", 0, 10).isEmpty());
+        assertEquals(List.of(1), searchEngine.search("робот", 0, 10));
+    }
+
+    @Test
+    void search_whenItemUnavailable_thenItemSkipped() {
+        searchEngine.index(new Item(3, "Дрель", "Аккумуляторная дрель", false, null, null, null));
+        assertEquals(List.of(4), searchEngine.search("аккУМУляторная", 0, 10));
+    }
+
+    @Test
+    void onUserRemoved_whenItemsCascaded_thenItemsDropped() {
+        searchEngine.onUserRemoved(new UserRemovedEvent(1, List.of(3), List.of()));
+        assertEquals(List.of(4), searchEngine.search("аккумуляторная", 0, 10));
+        assertTrue(searchEngine.search("дрель", 0, 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_whenItemsStored_thenIndexFilledFromRepository() {
+        searchEngine = new InMemoryItemSearchEngine(itemRepository);
+        when(itemRepository.findAll()).thenReturn(List.of(new Item(7, "Палатка", "Палатка", true, null, null, null)));
+        searchEngine.rebuild();
+        assertEquals(List.of(7), searchEngine.search("палатка", 0, 10));
+    }
+}
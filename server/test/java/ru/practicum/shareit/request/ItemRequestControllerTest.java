@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.TaggedBody;
 import ru.practicum.shareit.request.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -94,12 +95,12 @@ class ItemRequestControllerTest {
         Integer userId = 1;
         Integer requestId = 1;
         ItemRequestResponseDto itemRequestResponseDto = new ItemRequestResponseDto(requestId, "Нужен пылесос", LocalDateTime.now(), null);
-        when(itemRequestService.getItemRequest(userId, requestId)).thenReturn(itemRequestResponseDto);
+        when(itemRequestService.getTaggedItemRequest(userId, requestId)).thenReturn(new TaggedBody<>(itemRequestResponseDto, null));
         mockMvc.perform(get("/requests/{requestId}", requestId)
                         .header(USER_ID_REQUEST_HEADER, userId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(itemRequestResponseDto.getId()))
                 .andExpect(jsonPath("$.description").value(itemRequestResponseDto.getDescription()));
-        verify(itemRequestService, Mockito.times(1)).getItemRequest(userId, requestId);
+        verify(itemRequestService, Mockito.times(1)).getTaggedItemRequest(userId, requestId);
     }
 }
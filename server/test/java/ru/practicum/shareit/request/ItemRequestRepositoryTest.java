@@ -33,9 +33,9 @@ class ItemRequestRepositoryTest {
 
     @Test
     void findAllUsersItemRequest() {
-        User firstUser = userRepository.save(User.builder().id(1).name("Mark").email("kostrykinmark@gmail.com").build());
+        User firstUser = userRepository.save(User.builder().name("Mark").email("kostrykinmark@gmail.com").build());
         assertTrue(userRepository.findById(firstUser.getId()).isPresent());
-        User secondUser = userRepository.save(User.builder().id(2).name("John").email("johndoe@gmail.com").build());
+        User secondUser = userRepository.save(User.builder().name("John").email("johndoe@gmail.com").build());
         assertTrue(userRepository.findById(secondUser.getId()).isPresent());
 
         ItemRequest firstItemRequest = itemRequestRepository
@@ -8,6 +8,7 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
@@ -20,10 +21,12 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.verify;
@@ -54,7 +57,7 @@ public class ItemRequestServiceImplTest {
         itemMapper = new ItemMapper();
         itemRequestMapper = new ItemRequestMapper();
         itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, userRepository, itemRepository, itemMapper, itemRequestMapper);
-        user = new User(1, "Mark", "kostrykinmark@gmail.com");
+        user = new User(1, "Mark", "kostrykinmark@gmail.com", null);
         itemRequest = new ItemRequest(1, "Нужен пылесос", user, LocalDateTime.now());
     }
 
@@ -96,6 +99,8 @@ public class ItemRequestServiceImplTest {
             when(itemRequestRepository.findAllByRequestor_Id(1)).thenReturn(List.of(itemRequest));
             List<ItemRequestResponseDto> itemRequests = itemRequestService.getUserItemRequests(1);
             verify(itemRequestRepository, Mockito.times(1)).findAllByRequestor_Id(1);
+            verify(itemRepository, Mockito.times(1)).findAllGroupedByRequestIds(List.of(1));
+            verify(itemRepository, Mockito.never()).findAllByRequest_Id(anyInt());
             assertEquals(1, itemRequests.size());
         }
     }
@@ -111,6 +116,19 @@ public class ItemRequestServiceImplTest {
             assertEquals(1, itemRequests.size());
         }
 
+        @Test
+        void getUsersItemRequest_whenRequestsHaveItems_thenAttachItemsToEachRequest() {
+            ItemRequest secondItemRequest = new ItemRequest(2, "Нужна кофеварка", user, LocalDateTime.now());
+            Item item = new Item(1, "Пылесос", "Пылесос", true, user, itemRequest, null);
+            when(itemRequestRepository.findAllUsersItemRequest(2, 0, 2)).thenReturn(List.of(itemRequest, secondItemRequest));
+            when(itemRepository.findAllGroupedByRequestIds(List.of(1, 2))).thenReturn(Map.of(1, List.of(item)));
+            List<ItemRequestResponseDto> itemRequests = itemRequestService.getAllUsersItemRequest(2, 0, 2);
+            verify(itemRepository, Mockito.times(1)).findAllGroupedByRequestIds(List.of(1, 2));
+            assertEquals(1, itemRequests.get(0).getItems().size());
+            assertEquals(item.getId(), itemRequests.get(0).getItems().get(0).getId());
+            assertTrue(itemRequests.get(1).getItems().isEmpty());
+        }
+
     }
 
     @Nested
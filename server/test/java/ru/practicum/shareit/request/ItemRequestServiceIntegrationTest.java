@@ -32,8 +32,8 @@ class ItemRequestServiceIntegrationTest {
 
     @Test
     void getAllUsersItemRequest() {
-        UserDto user = new UserDto(1, "Mark", "kostrykinmark@gmail.com");
-        UserDto secondUser = new UserDto(2, "John", "johndoe@gmail.com");
+        UserDto user = new UserDto(1, "Mark", "kostrykinmark@gmail.com", null);
+        UserDto secondUser = new UserDto(2, "John", "johndoe@gmail.com", null);
         ItemRequestRequestDto firstRequest = new ItemRequestRequestDto("Нужен пылесос");
         ItemRequestRequestDto secondRequest = new ItemRequestRequestDto("Нужна кофемашина");
         UserDto savedFirstUser = userService.add(user);
@@ -7,16 +7,24 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.exception.VersionConflictException;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.user.service.UserServiceImpl.USER_VERSION_CONFLICT_MESSAGE;
 
 @WebMvcTest(UserController.class)
 class UserControllerTest {
@@ -32,7 +40,7 @@ class UserControllerTest {
     @SneakyThrows
     @Test
     void addUser() {
-        UserDto userDto = new UserDto(1, "Mark", "kostrykinmark@gmail.com");
+        UserDto userDto = new UserDto(1, "Mark", "kostrykinmark@gmail.com", null);
         when(userService.add(userDto)).thenReturn(userDto);
         String result = mockMvc.perform(post("/users")
                         .contentType("application/json")
@@ -44,14 +52,28 @@ class UserControllerTest {
         assertEquals(objectMapper.writeValueAsString(userDto), result);
     }
 
+    @SneakyThrows
+    @Test
+    void addUsers() {
+        List<UserDto> users = List.of(new UserDto(1, "Mark", "kostrykinmark@gmail.com", null), new UserDto(2, "John", "johndoe@gmail.com", null));
+        when(userService.addAll(users)).thenReturn(users);
+        mockMvc.perform(post("/users/batch")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(users)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        verify(userService, Mockito.times(1)).addAll(users);
+    }
+
     @SneakyThrows
     @Test
     void getUser() {
         Integer userId = 1;
-        UserDto userDto = new UserDto(1, "Mark", "kostrykinmark@gmail.com");
+        UserDto userDto = new UserDto(1, "Mark", "kostrykinmark@gmail.com", 3);
         when(userService.getById(userId)).thenReturn(userDto);
         String result = mockMvc.perform(get("/users/{id}", userId))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
@@ -80,8 +102,8 @@ class UserControllerTest {
     @Test
     void updateUser() {
         Integer userId = 1;
-        UserDto userDto = new UserDto(1, "Mark", "kostrykinmark@gmail.com");
-        when(userService.update(userId, userDto)).thenReturn(userDto);
+        UserDto userDto = new UserDto(1, "Mark", "kostrykinmark@gmail.com", null);
+        when(userService.update(userId, userDto, null)).thenReturn(userDto);
         mockMvc.perform(patch("/users/{id}", userId)
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(userDto)))
@@ -89,7 +111,46 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.id").value(userDto.getId()))
                 .andExpect(jsonPath("$.name").value(userDto.getName()))
                 .andExpect(jsonPath("$.email").value(userDto.getEmail()));
-        verify(userService, Mockito.times(1)).update(userId, userDto);
+        verify(userService, Mockito.times(1)).update(userId, userDto, null);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateUser_whenIfMatchIsPresent_thenPassExpectedVersionAndReturnNewTag() {
+        Integer userId = 1;
+        UserDto userDto = new UserDto(null, "John", null, null);
+        UserDto updatedUser = new UserDto(1, "John", "kostrykinmark@gmail.com", 4);
+        when(userService.update(userId, userDto, 3)).thenReturn(updatedUser);
+        mockMvc.perform(patch("/users/{id}", userId)
+                        .contentType("application/json")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        verify(userService, Mockito.times(1)).update(userId, userDto, 3);
+    }
+
+    @SneakyThrows
+    @Test
+    void updateUser_whenIfMatchIsMalformed_thenBadRequest() {
+        mockMvc.perform(patch("/users/{id}", 1)
+                        .contentType("application/json")
+                        .header(HttpHeaders.IF_MATCH, "3")
+                        .content(objectMapper.writeValueAsString(new UserDto(null, "John", null, null))))
+                .andExpect(status().isBadRequest());
+        verify(userService, Mockito.never()).update(anyInt(), any(UserDto.class), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void updateUser_whenVersionConflicts_thenConflict() {
+        UserDto userDto = new UserDto(null, "John", null, null);
+        when(userService.update(1, userDto, 3)).thenThrow(new VersionConflictException(USER_VERSION_CONFLICT_MESSAGE, 1));
+        mockMvc.perform(patch("/users/{id}", 1)
+                        .contentType("application/json")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isConflict());
     }
 
 
@@ -1,18 +1,28 @@
 package ru.practicum.shareit.user;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class UserRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     void findById() {
         assertTrue(userRepository.findById(-1).isEmpty());
@@ -22,4 +32,47 @@ class UserRepositoryTest {
     void findAll() {
         assertEquals(0, userRepository.findAll().size());
     }
+
+    @Test
+    void saveAll_whenManyUsersSaved_thenInsertsAreBatched() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(User.builder().name("user" + i).email("user" + i + "@mail.ru").build());
+        }
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userRepository.saveAll(users);
+        entityManager.flush();
+
+        assertEquals(200, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 20, "prepared statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void patch_whenVersionMatches_thenOnlySuppliedFieldsUpdated() {
+        User user = userRepository.saveAndFlush(User.builder().name("Mark").email("kostrykinmark@gmail.com").build());
+
+        User patchedUser = userRepository.patch(user.getId(), "John", null, user.getVersion()).orElseThrow();
+
+        assertEquals("John", patchedUser.getName());
+        assertEquals("kostrykinmark@gmail.com", patchedUser.getEmail());
+        assertEquals(user.getVersion() + 1, patchedUser.getVersion());
+    }
+
+    @Test
+    void patch_whenNothingSupplied_thenVersionKept() {
+        User user = userRepository.saveAndFlush(User.builder().name("Mark").email("kostrykinmark@gmail.com").build());
+
+        assertEquals(user.getVersion(), userRepository.patch(user.getId(), null, null, null).orElseThrow().getVersion());
+    }
+
+    @Test
+    void patch_whenVersionIsStale_thenNothingUpdated() {
+        User user = userRepository.saveAndFlush(User.builder().name("Mark").email("kostrykinmark@gmail.com").build());
+
+        assertTrue(userRepository.patch(user.getId(), "John", null, user.getVersion() + 1).isEmpty());
+        assertTrue(userRepository.patch(-1, "John", null, null).isEmpty());
+    }
 }
@@ -28,7 +28,7 @@ class UserServiceIntegrationTest {
     @Test
     void getById() {
 
-        UserDto savedUser = userService.add(new UserDto(1, "Mark", "kostrykinmark@gmail.com"));
+        UserDto savedUser = userService.add(new UserDto(1, "Mark", "kostrykinmark@gmail.com", null));
         UserDto foundUser = userService.getById(savedUser.getId());
         assertEquals(savedUser.getName(), foundUser.getName());
         assertEquals(savedUser.getEmail(), foundUser.getEmail());